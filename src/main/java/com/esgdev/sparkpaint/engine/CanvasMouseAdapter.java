@@ -23,8 +23,7 @@ public class CanvasMouseAdapter extends MouseAdapter {
         if (tool != null) {
             tool.mouseMoved(e);
         }
-        canvas.setCursorShapeCenter(e.getPoint());
-        canvas.repaint();
+        canvas.moveCursorShape(e.getPoint());
     }
 
     @Override
@@ -33,9 +32,8 @@ public class CanvasMouseAdapter extends MouseAdapter {
         if (tool != null) {
             tool.mouseDragged(e);
         }
-        canvas.setCursorShapeCenter(e.getPoint());
-
-        canvas.repaint();
+        // Tools repaint the areas they change themselves
+        canvas.moveCursorShape(e.getPoint());
     }
 
     @Override
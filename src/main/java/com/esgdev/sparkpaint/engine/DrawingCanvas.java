@@ -19,6 +19,8 @@ import com.esgdev.sparkpaint.ui.ToolChangeListener;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -59,6 +61,22 @@ public class DrawingCanvas extends JPanel implements
     private Point cursorShapeCenter = new Point(0, 0);
     private int cursorSize = 0;
     private BrushTool.BrushShape cursorShape;
+    private static final BasicStroke CURSOR_STROKE = new BasicStroke(
+            1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, new float[]{3, 3}, 0);
+    // The brush outline at the origin, rebuilt only when the shape, size or zoom changes
+    private Shape cursorOutline;
+    private BrushTool.BrushShape cursorOutlineShape;
+    private int cursorOutlineSize;
+    private float cursorOutlineZoom;
+    // Flattened layers held while a floating selection is moved, so each step is a single blit
+    private BufferedImage selectionMoveBackdrop;
+    private static final int SELECTION_REPAINT_PADDING = 2;
+    private static final int MARCHING_ANTS_DELAY_MS = 150;
+    private javax.swing.Timer marchingAntsTimer;
+    private int marchingAntsPhase;
+    private boolean canvasChangePending;
+    // Applies brush dabs off the event dispatch thread and reports the areas they changed
+    private final StrokeRasterizer strokeRasterizer = new StrokeRasterizer(this::repaintDocumentArea);
 
     /**
      * Creates a fully configured DrawingCanvas with all required dependencies.
@@ -183,6 +201,7 @@ public class DrawingCanvas extends JPanel implements
         setPreferredSize(new Dimension(width, height));
         revalidate();
         repaint();
+        notifyCanvasChanged();
     }
 
     public void setToolCanvas(BufferedImage toolCanvas) {
@@ -233,13 +252,15 @@ public class DrawingCanvas extends JPanel implements
 
 
     public void setCursorSize(int size) {
+        repaintCursor();
         cursorSize = size;
-        repaint();
+        repaintCursor();
     }
 
     public void setCursorShape(BrushTool.BrushShape cursorShape) {
+        repaintCursor();
         this.cursorShape = cursorShape;
-        repaint();
+        repaintCursor();
     }
 
     public float getLineThickness() {
@@ -266,10 +287,22 @@ public class DrawingCanvas extends JPanel implements
         canvasChangeListeners.remove(listener);
     }
 
-    private void notifyCanvasChanged() {
-        for (CanvasChangeListener listener : canvasChangeListeners) {
-            listener.onCanvasChanged();
+    /**
+     * Tells the canvas change listeners that the picture has changed. Everything that edits the
+     * layers calls this; calls made while one event is handled are merged into a single
+     * notification, sent after the event so that it sees the finished edit.
+     */
+    public void notifyCanvasChanged() {
+        if (canvasChangePending) {
+            return;
         }
+        canvasChangePending = true;
+        SwingUtilities.invokeLater(() -> {
+            canvasChangePending = false;
+            for (CanvasChangeListener listener : canvasChangeListeners) {
+                listener.onCanvasChanged();
+            }
+        });
     }
 
     public ToolManager.Tool getCurrentTool() {
@@ -285,14 +318,41 @@ public class DrawingCanvas extends JPanel implements
     }
 
     public void setCurrentTool(ToolManager.Tool tool) {
+        // The brush cursor may disappear or change with the tool
+        repaintCursor();
         // Notify all listeners
         toolManager.setCurrentTool(tool);
+        repaintCursor();
     }
 
     public void setCursorShapeCenter(Point p) {
         this.cursorShapeCenter = p;
     }
 
+    /**
+     * Moves the brush cursor to a new screen position and repaints only the area it left
+     * and the area it now covers.
+     */
+    public void moveCursorShape(Point p) {
+        repaintCursor();
+        cursorShapeCenter = p;
+        repaintCursor();
+    }
+
+    /**
+     * Repaints the screen area of the brush cursor, if one is shown.
+     */
+    private void repaintCursor() {
+        if (cursorShape == null || toolManager == null || !toolManager.isShowBrushCursor()) {
+            return;
+        }
+        int x = (int) (cursorShapeCenter.x - (cursorSize / 2.0) * zoomFactor);
+        int y = (int) (cursorShapeCenter.y - (cursorSize / 2.0) * zoomFactor);
+        int side = (int) (cursorSize * zoomFactor);
+        // One pixel around for the outline stroke
+        repaint(x - 1, y - 1, side + 3, side + 3);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -309,11 +369,16 @@ public class DrawingCanvas extends JPanel implements
             g2d.fillRect(0, 0, getWidth(), getHeight());
         }
 
-        // Draw all visible layers from bottom to top
-        List<Layer> layers = layerManager.getLayers();
-        for (Layer layer : layers) {
-            if (layer.isVisible()) {
-                g2d.drawImage(layer.getImage(), 0, 0, null);
+        if (selectionMoveBackdrop != null) {
+            // The layers cannot change while a selection is being moved
+            g2d.drawImage(selectionMoveBackdrop, 0, 0, null);
+        } else {
+            // Draw all visible layers from bottom to top
+            List<Layer> layers = layerManager.getLayers();
+            for (Layer layer : layers) {
+                if (layer.isVisible()) {
+                    g2d.drawImage(layer.getImage(), 0, 0, null);
+                }
             }
         }
 
@@ -340,19 +405,144 @@ public class DrawingCanvas extends JPanel implements
             }
         }
 
-        if (selection != null) {
-            selection.drawSelectionOutline(g2d, zoomFactor);
+        if (selection != null && selection.hasOutline()) {
+            selection.drawSelectionOutline(g2d, zoomFactor, marchingAntsPhase);
         }
 
         // Draw the brush cursor
         if (toolManager.isShowBrushCursor()) {
             drawCursorShape(g2d);
         }
-        notifyCanvasChanged();
 
         g2d.dispose();
     }
 
+    /**
+     * Starts the marching ants when the selection has an outline and stops them otherwise.
+     * Called wherever the selection is set or cleared, so painting never touches the timer.
+     */
+    private void updateMarchingAnts() {
+        Selection selection = selectionManager.getSelection();
+        if (selection != null && selection.hasOutline()) {
+            if (marchingAntsTimer == null) {
+                marchingAntsTimer = new javax.swing.Timer(MARCHING_ANTS_DELAY_MS, e -> advanceMarchingAnts());
+            }
+            if (!marchingAntsTimer.isRunning()) {
+                marchingAntsTimer.start();
+            }
+        } else if (marchingAntsTimer != null) {
+            marchingAntsTimer.stop();
+        }
+    }
+
+    /**
+     * Shifts the selection outline dashes and repaints only the outline area.
+     * The timer stops itself once there is no outline left to animate.
+     */
+    private void advanceMarchingAnts() {
+        Selection selection = selectionManager.getSelection();
+        Rectangle bounds = selection != null && selection.hasOutline() ? selection.getBounds() : null;
+        if (bounds == null) {
+            marchingAntsTimer.stop();
+            return;
+        }
+        if (!isShowing()) {
+            return;
+        }
+        marchingAntsPhase = (marchingAntsPhase + 1) % Selection.OUTLINE_DASH_PERIOD;
+        repaintSelectionArea(bounds);
+    }
+
+    /**
+     * Starts moving a floating selection. The visible layers are flattened once and
+     * painted as a single image until {@link #endSelectionMove()} is called.
+     */
+    public void beginSelectionMove() {
+        selectionMoveBackdrop = layerManager.getCompositeImage();
+    }
+
+    /**
+     * Ends a selection move started with {@link #beginSelectionMove()} and repaints the canvas.
+     */
+    public void endSelectionMove() {
+        if (selectionMoveBackdrop != null) {
+            selectionMoveBackdrop = null;
+            repaint();
+        }
+    }
+
+    /**
+     * Repaints only the area a moved selection left and entered, including its outline.
+     *
+     * @param before the selection bounds before the move, in world coordinates
+     * @param after  the selection bounds after the move, in world coordinates
+     */
+    public void repaintSelectionMove(Rectangle before, Rectangle after) {
+        if (before == null || after == null) {
+            repaint();
+            return;
+        }
+        repaintSelectionArea(before.union(after));
+    }
+
+    /**
+     * Repaints the screen area of the given world bounds, padded for the selection outline.
+     *
+     * @param dirty the area to repaint, in world coordinates
+     * @return the repainted area in screen coordinates
+     */
+    public Rectangle repaintSelectionArea(Rectangle dirty) {
+        Rectangle area = toScreenArea(dirty, SELECTION_REPAINT_PADDING);
+        repaint(area);
+        return area;
+    }
+
+    /**
+     * Repaints the screen area of a changed part of the document and marks it stale in the
+     * layer composite. Tools report the area an operation changed here instead of repainting
+     * the whole canvas.
+     *
+     * @param dirty the changed area in world coordinates, or null if the whole document changed
+     */
+    public void repaintDocumentArea(Rectangle dirty) {
+        notifyCanvasChanged();
+        if (dirty == null) {
+            layerManager.invalidateComposite();
+            repaint();
+            return;
+        }
+        layerManager.invalidateComposite(dirty);
+        repaint(toScreenArea(dirty, 1));
+    }
+
+    /**
+     * Repaints the screen area of a tool preview. Previews live on the tool canvas, which is
+     * painted over the layers, so the document and its composite are left alone.
+     *
+     * @param area the preview area in world coordinates
+     */
+    public void repaintPreviewArea(Rectangle area) {
+        repaint(toScreenArea(area, 1));
+    }
+
+    /**
+     * Converts world bounds to the screen area that covers them at the current zoom.
+     */
+    private Rectangle toScreenArea(Rectangle world, int padding) {
+        int x = (int) Math.floor(world.x * zoomFactor) - padding;
+        int y = (int) Math.floor(world.y * zoomFactor) - padding;
+        int width = (int) Math.ceil(world.width * zoomFactor) + 2 * padding + 1;
+        int height = (int) Math.ceil(world.height * zoomFactor) + 2 * padding + 1;
+        return new Rectangle(x, y, width, height);
+    }
+
+    /**
+     * Returns the rasterizer that painting tools queue their dabs on.
+     */
+    public StrokeRasterizer getStrokeRasterizer() {
+        return strokeRasterizer;
+    }
+
     private void initMouseHandlers(CanvasMouseAdapter canvasMouseAdapter) {
         addMouseListener(canvasMouseAdapter);
         addMouseMotionListener(canvasMouseAdapter);
@@ -378,33 +568,38 @@ public class DrawingCanvas extends JPanel implements
 
     private void drawCursorShape(Graphics2D g2d) {
         if (cursorShape == null) return;
+        Shape outline = getCursorOutline();
+        if (outline == null) return;
+        int x = (int) (cursorShapeCenter.x - (cursorSize / 2.0) * zoomFactor);
+        int y = (int) (cursorShapeCenter.y - (cursorSize / 2.0) * zoomFactor);
         g2d.setColor(Color.BLACK);
-        float[] dottedPattern = {3, 3};
-        BasicStroke dottedStroke = new BasicStroke(
-                1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
-                10.0f, dottedPattern, 0);
-        g2d.setStroke(dottedStroke);
-        switch (cursorShape) {
-            case SPRAY:
-            case CIRCLE:
-                Point circleCenter = cursorShapeCenter;
-                int x = (int) (circleCenter.x - (cursorSize / 2.0) * zoomFactor);
-                int y = (int) (circleCenter.y - (cursorSize / 2.0) * zoomFactor);
-                int diameter = (int) (cursorSize * zoomFactor);
-                g2d.drawOval(x, y, diameter, diameter);
-                break;
-            case SQUARE:
-                Point squareCenter = cursorShapeCenter;
-                int squareX = (int) (squareCenter.x - (cursorSize / 2.0) * zoomFactor);
-                int squareY = (int) (squareCenter.y - (cursorSize / 2.0) * zoomFactor);
-                int squareSide = (int) (cursorSize * zoomFactor);
-                g2d.drawRect(squareX, squareY, squareSide, squareSide);
-                break;
-            default:
-                // unsupported
-                break;
+        g2d.setStroke(CURSOR_STROKE);
+        g2d.translate(x, y);
+        g2d.draw(outline);
+        g2d.translate(-x, -y);
+    }
+
+    private Shape getCursorOutline() {
+        if (cursorShape != cursorOutlineShape || cursorSize != cursorOutlineSize || zoomFactor != cursorOutlineZoom) {
+            int side = (int) (cursorSize * zoomFactor);
+            switch (cursorShape) {
+                case SPRAY:
+                case CIRCLE:
+                    cursorOutline = new Ellipse2D.Float(0, 0, side, side);
+                    break;
+                case SQUARE:
+                    cursorOutline = new Rectangle(0, 0, side, side);
+                    break;
+                default:
+                    // unsupported
+                    cursorOutline = null;
+                    break;
+            }
+            cursorOutlineShape = cursorShape;
+            cursorOutlineSize = cursorSize;
+            cursorOutlineZoom = zoomFactor;
         }
-
+        return cursorOutline;
     }
 
     public void addCanvasPropertyChangeListener(CanvasPropertyChangeListener listener) {
@@ -442,25 +637,30 @@ public class DrawingCanvas extends JPanel implements
     @Override
     public void addNewLayer() {
         layerManager.addNewLayer();
+        notifyCanvasChanged();
     }
 
     @Override
     public boolean duplicateCurrentLayer() {
+        notifyCanvasChanged();
         return layerManager.duplicateCurrentLayer();
     }
 
     @Override
     public void deleteCurrentLayer() {
         layerManager.deleteCurrentLayer();
+        notifyCanvasChanged();
     }
 
     @Override
     public void deleteLayer(int index) {
         layerManager.deleteLayer(index);
+        notifyCanvasChanged();
     }
 
     @Override
     public boolean moveLayer(int fromIndex, int toIndex) {
+        notifyCanvasChanged();
         return layerManager.moveLayer(fromIndex, toIndex);
     }
 
@@ -472,6 +672,7 @@ public class DrawingCanvas extends JPanel implements
     @Override
     public void setLayers(List<Layer> layers) {
         layerManager.setLayers(layers);
+        notifyCanvasChanged();
     }
 
     @Override
@@ -496,11 +697,13 @@ public class DrawingCanvas extends JPanel implements
 
     @Override
     public boolean mergeCurrentLayerDown() {
+        notifyCanvasChanged();
         return layerManager.mergeCurrentLayerDown();
     }
 
     @Override
     public boolean flattenLayers() {
+        notifyCanvasChanged();
         return layerManager.flattenLayers();
     }
 
@@ -524,6 +727,23 @@ public class DrawingCanvas extends JPanel implements
         return layerManager.getTransparencyBackground();
     }
 
+    @Override
+    public BufferedImage getCompositeImage() {
+        return layerManager.getCompositeImage();
+    }
+
+    @Override
+    public void invalidateComposite() {
+        layerManager.invalidateComposite();
+        notifyCanvasChanged();
+    }
+
+    @Override
+    public void invalidateComposite(Rectangle region) {
+        layerManager.invalidateComposite(region);
+        notifyCanvasChanged();
+    }
+
     // SelectionManagement interface
 
     @Override
@@ -534,11 +754,13 @@ public class DrawingCanvas extends JPanel implements
     @Override
     public void setSelection(Selection selection) {
         selectionManager.setSelection(selection);
+        updateMarchingAnts();
     }
 
     @Override
     public void clearSelection() {
         selectionManager.clearSelection();
+        updateMarchingAnts();
     }
 
     @Override
@@ -566,11 +788,41 @@ public class DrawingCanvas extends JPanel implements
         selectionManager.rotateSelection(degrees);
     }
 
+    @Override
+    public void rotateSelection(double degrees) {
+        selectionManager.rotateSelection(degrees);
+    }
+
+    @Override
+    public void transformSelection(AffineTransform transform) {
+        selectionManager.transformSelection(transform);
+    }
+
     @Override
     public void flipSelection(boolean horizontal) {
         selectionManager.flipSelection(horizontal);
     }
 
+    @Override
+    public void growSelection(int radius) {
+        selectionManager.growSelection(radius);
+    }
+
+    @Override
+    public void shrinkSelection(int radius) {
+        selectionManager.shrinkSelection(radius);
+    }
+
+    @Override
+    public void borderSelection(int radius) {
+        selectionManager.borderSelection(radius);
+    }
+
+    @Override
+    public void featherSelection(int radius) {
+        selectionManager.featherSelection(radius);
+    }
+
     @Override
     public boolean isWithinSelection(Point worldPoint) {
         return selectionManager.isWithinSelection(worldPoint);
@@ -635,6 +887,7 @@ public class DrawingCanvas extends JPanel implements
         setPreferredSize(new Dimension(firstLayerImage.getWidth(), firstLayerImage.getHeight()));
         revalidate();
         repaint();
+        notifyCanvasChanged();
         clearHistory();
 
         return layerState;
@@ -669,9 +922,15 @@ public class DrawingCanvas extends JPanel implements
 
     @Override
     public void saveToUndoStack() {
+        // Let any queued dabs land first, so the saved state is complete
+        strokeRasterizer.finish();
         // Get layers and current layer index from the layerManager
         List<Layer> layers = layerManager.getLayers();
         int currentLayerIndex = layerManager.getCurrentLayerIndex();
+        // Callers save right before editing, so the composite is redrawn on its next use
+        // and the listeners hear about the change once the edit is done
+        layerManager.invalidateComposite();
+        notifyCanvasChanged();
 
         // Pass these to the historyManager's detailed method
         ((HistoryManager) historyManager).saveToUndoStack(layers, currentLayerIndex);
@@ -679,6 +938,7 @@ public class DrawingCanvas extends JPanel implements
 
     @Override
     public LayerState undo() {
+        strokeRasterizer.finish();
         LayerState state = ((HistoryManager) historyManager).undo(layerManager.getLayers(), layerManager.getCurrentLayerIndex());
         layerManager.setLayers(state.getLayers());
         layerManager.setCurrentLayerIndex(state.getCurrentLayerIndex());
@@ -688,11 +948,13 @@ public class DrawingCanvas extends JPanel implements
             selection.clearOutline();
         }
         repaint();
+        notifyCanvasChanged();
         return state;
     }
 
     @Override
     public LayerState redo() {
+        strokeRasterizer.finish();
         LayerState state = ((HistoryManager) historyManager).redo(layerManager.getLayers(), layerManager.getCurrentLayerIndex());
         layerManager.setLayers(state.getLayers());
         layerManager.setCurrentLayerIndex(state.getCurrentLayerIndex());
@@ -702,6 +964,7 @@ public class DrawingCanvas extends JPanel implements
             selection.clearOutline();
         }
         repaint();
+        notifyCanvasChanged();
         return state;
     }
 
@@ -780,6 +1043,7 @@ public class DrawingCanvas extends JPanel implements
     @Override
     public void notifyLayersChanged() {
         layerManager.notifyLayersChanged();
+        notifyCanvasChanged();
     }
 
     public void setActivePalette(List<Color> generatedPalette) {
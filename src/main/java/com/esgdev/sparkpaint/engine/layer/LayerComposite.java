@@ -0,0 +1,125 @@
+package com.esgdev.sparkpaint.engine.layer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cached flattened image of all visible layers, used by tools that sample the whole picture.
+ * The composite is rebuilt lazily: edits only mark it dirty, and the next read redraws the dirty
+ * region. Changes to the layer stack itself (images, order or visibility) are detected on read
+ * and cause a full rebuild.
+ */
+public class LayerComposite {
+    private BufferedImage image;
+    private final List<BufferedImage> builtImages = new ArrayList<>();
+    private final List<Boolean> builtVisibility = new ArrayList<>();
+    private Rectangle dirtyRegion;
+    private boolean fullyDirty = true;
+    private int version;
+
+    /**
+     * Returns the composite of the given layers, redrawing whatever changed since the last call.
+     * The returned image is shared and must not be modified.
+     *
+     * @param layers the layer stack, from bottom to top
+     * @return the composite image, or null if there are no layers
+     */
+    public BufferedImage get(List<Layer> layers) {
+        if (layers == null || layers.isEmpty()) {
+            return null;
+        }
+
+        BufferedImage first = layers.get(0).getImage();
+        int width = first.getWidth();
+        int height = first.getHeight();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            fullyDirty = true;
+        }
+        if (!matchesStack(layers)) {
+            fullyDirty = true;
+        }
+
+        if (fullyDirty) {
+            redraw(layers, new Rectangle(0, 0, width, height));
+        } else if (dirtyRegion != null) {
+            Rectangle region = dirtyRegion.intersection(new Rectangle(0, 0, width, height));
+            if (!region.isEmpty()) {
+                redraw(layers, region);
+            }
+        } else {
+            return image;
+        }
+
+        rememberStack(layers);
+        fullyDirty = false;
+        dirtyRegion = null;
+        version++;
+        return image;
+    }
+
+    /**
+     * Marks the whole composite as out of date.
+     */
+    public void invalidate() {
+        fullyDirty = true;
+        dirtyRegion = null;
+    }
+
+    /**
+     * Marks part of the composite as out of date.
+     *
+     * @param region the changed area in image coordinates
+     */
+    public void invalidate(Rectangle region) {
+        if (fullyDirty || region == null || region.isEmpty()) {
+            return;
+        }
+        dirtyRegion = dirtyRegion == null ? new Rectangle(region) : dirtyRegion.union(region);
+    }
+
+    /**
+     * Returns a counter that changes every time the composite is redrawn.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void redraw(List<Layer> layers, Rectangle region) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setClip(region);
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(region.x, region.y, region.width, region.height);
+        g2d.setComposite(AlphaComposite.SrcOver);
+        for (Layer layer : layers) {
+            if (layer.isVisible()) {
+                g2d.drawImage(layer.getImage(), 0, 0, null);
+            }
+        }
+        g2d.dispose();
+    }
+
+    private boolean matchesStack(List<Layer> layers) {
+        if (layers.size() != builtImages.size()) {
+            return false;
+        }
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.getImage() != builtImages.get(i) || layer.isVisible() != builtVisibility.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rememberStack(List<Layer> layers) {
+        builtImages.clear();
+        builtVisibility.clear();
+        for (Layer layer : layers) {
+            builtImages.add(layer.getImage());
+            builtVisibility.add(layer.isVisible());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.esgdev.sparkpaint.engine.layer;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.List;
 
@@ -126,6 +127,26 @@ public interface LayerManagement {
      */
     BufferedImage getTransparencyBackground();
 
+    /**
+     * Gets a flattened image of all visible layers for sampling. The image is cached
+     * and shared, so callers must not modify it.
+     *
+     * @return the composite image, or null if there are no layers
+     */
+    BufferedImage getCompositeImage();
+
+    /**
+     * Marks the cached composite image as out of date after layer pixels changed.
+     */
+    void invalidateComposite();
+
+    /**
+     * Marks part of the cached composite image as out of date.
+     *
+     * @param region the changed area in image coordinates
+     */
+    void invalidateComposite(Rectangle region);
+
     /**
      * Adds a listener to be notified of layer changes.
      *
@@ -22,6 +22,7 @@ public class LayerManager implements LayerManagement {
     private static final Color CHECKERBOARD_COLOR2 = new Color(255, 255, 255); // White
     private boolean transparencyVisualizationEnabled = true;
     private final List<LayerChangeListener> layerChangeListeners = new ArrayList<>();
+    private final LayerComposite composite = new LayerComposite();
 
 
     public LayerManager(DrawingCanvas canvas) {
@@ -242,6 +243,7 @@ public class LayerManager implements LayerManagement {
         g2d.dispose();
 
         layers.remove(currentLayerIndex);
+        composite.invalidate();
 
         // Set the current layer index to the merged layer
         currentLayerIndex--;
@@ -284,6 +286,18 @@ public class LayerManager implements LayerManagement {
         return true;
     }
 
+    public BufferedImage getCompositeImage() {
+        return composite.get(layers);
+    }
+
+    public void invalidateComposite() {
+        composite.invalidate();
+    }
+
+    public void invalidateComposite(Rectangle region) {
+        composite.invalidate(region);
+    }
+
     private void createTransparencyBackground(int width, int height) {
         transparencyBackground = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = transparencyBackground.createGraphics();
@@ -315,6 +329,7 @@ public class LayerManager implements LayerManagement {
 
     @Override
     public void notifyLayersChanged() {
+        composite.invalidate();
         for (LayerChangeListener listener : layerChangeListeners) {
             listener.onLayersChanged();
         }
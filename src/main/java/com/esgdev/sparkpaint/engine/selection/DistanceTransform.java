@@ -0,0 +1,198 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import java.awt.*;
+
+/**
+ * Exact Euclidean distance transforms for selection masks, used to grow, shrink, border and feather
+ * selections. The transform is the separable lower-envelope algorithm of Felzenszwalb and
+ * Huttenlocher: one pass over the rows and one over the columns, each linear in the number of
+ * pixels, so the cost does not depend on the radius.
+ */
+public final class DistanceTransform {
+    private static final float INF = 1e20f;
+
+    private DistanceTransform() {
+    }
+
+    /**
+     * Computes, for every pixel of a width by height grid, the squared distance to the nearest
+     * feature pixel. Pixels are feature pixels where features is true.
+     *
+     * @return squared distances in row-major order; very large where there are no features at all
+     */
+    public static float[] squared(boolean[] features, int width, int height) {
+        float[] grid = new float[width * height];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = features[i] ? 0 : INF;
+        }
+
+        int size = Math.max(width, height);
+        float[] line = new float[size];
+        float[] result = new float[size];
+        int[] vertices = new int[size];
+        double[] ranges = new double[size + 1];
+
+        // Rows first, then columns over the row results
+        for (int row = 0; row < height; row++) {
+            int offset = row * width;
+            System.arraycopy(grid, offset, line, 0, width);
+            transformLine(line, width, result, vertices, ranges);
+            System.arraycopy(result, 0, grid, offset, width);
+        }
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                line[row] = grid[row * width + col];
+            }
+            transformLine(line, height, result, vertices, ranges);
+            for (int row = 0; row < height; row++) {
+                grid[row * width + col] = result[row];
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * One-dimensional squared distance transform of a sampled function: the lower envelope of
+     * the parabolas rooted at every sample.
+     */
+    private static void transformLine(float[] f, int n, float[] d, int[] v, double[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = Double.NEGATIVE_INFINITY;
+        z[1] = Double.POSITIVE_INFINITY;
+        for (int q = 1; q < n; q++) {
+            double s = intersection(f, q, v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = intersection(f, q, v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = Double.POSITIVE_INFINITY;
+        }
+
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) {
+                k++;
+            }
+            double offset = q - v[k];
+            d[q] = (float) Math.min(INF, offset * offset + f[v[k]]);
+        }
+    }
+
+    private static double intersection(float[] f, int q, int p) {
+        return ((f[q] + (double) q * q) - (f[p] + (double) p * p)) / (2.0 * (q - p));
+    }
+
+    /**
+     * Returns a mask that also selects every pixel within radius of a selected pixel.
+     * The result is clipped to limit, extended to cover the original mask.
+     */
+    public static SelectionMask grow(SelectionMask mask, int radius, Rectangle limit) {
+        Rectangle bounds = mask.getBounds();
+        Rectangle frame = new Rectangle(bounds);
+        frame.grow(radius, radius);
+        if (limit != null) {
+            frame = frame.intersection(limit.union(bounds));
+        }
+        if (radius <= 0 || frame.isEmpty()) {
+            return mask.copy();
+        }
+
+        float[] distances = squared(selectedPixels(mask, frame), frame.width, frame.height);
+        return threshold(distances, frame, (long) radius * radius, true).trim();
+    }
+
+    /**
+     * Returns a mask that keeps only the selected pixels further than radius from any
+     * unselected pixel. Pixels outside the mask frame count as unselected.
+     */
+    public static SelectionMask shrink(SelectionMask mask, int radius) {
+        if (radius <= 0) {
+            return mask.copy();
+        }
+
+        Rectangle frame = mask.getBounds();
+        frame.grow(1, 1);
+        boolean[] unselected = selectedPixels(mask, frame);
+        for (int i = 0; i < unselected.length; i++) {
+            unselected[i] = !unselected[i];
+        }
+
+        float[] distances = squared(unselected, frame.width, frame.height);
+        return threshold(distances, frame, (long) radius * radius, false).trim();
+    }
+
+    /**
+     * Returns a band of pixels within radius of the edge of the selection, on either side.
+     */
+    public static SelectionMask border(SelectionMask mask, int radius, Rectangle limit) {
+        return grow(mask, radius, limit).andNot(shrink(mask, radius)).trim();
+    }
+
+    /**
+     * Returns, for every pixel in the mask frame, the distance to the nearest unselected pixel.
+     * Unselected pixels get 0, and pixels outside the frame count as unselected.
+     */
+    public static float[] insideDistances(SelectionMask mask) {
+        Rectangle bounds = mask.getBounds();
+        Rectangle frame = new Rectangle(bounds);
+        frame.grow(1, 1);
+        boolean[] unselected = selectedPixels(mask, frame);
+        for (int i = 0; i < unselected.length; i++) {
+            unselected[i] = !unselected[i];
+        }
+        float[] distances = squared(unselected, frame.width, frame.height);
+
+        // Crop the padding back off
+        float[] result = new float[bounds.width * bounds.height];
+        for (int row = 0; row < bounds.height; row++) {
+            int source = (row + 1) * frame.width + 1;
+            for (int col = 0; col < bounds.width; col++) {
+                result[row * bounds.width + col] = (float) Math.sqrt(distances[source + col]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean[] selectedPixels(SelectionMask mask, Rectangle frame) {
+        boolean[] selected = new boolean[frame.width * frame.height];
+        Rectangle overlap = mask.getBounds().intersection(frame);
+        for (int py = overlap.y; py < overlap.y + overlap.height; py++) {
+            int offset = (py - frame.y) * frame.width - frame.x;
+            for (int px = overlap.x; px < overlap.x + overlap.width; px++) {
+                if (mask.contains(px, py)) {
+                    selected[offset + px] = true;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Builds a mask over the frame from the squared distances, selecting pixels at or within
+     * the limit when within is true and pixels beyond it otherwise.
+     */
+    private static SelectionMask threshold(float[] distances, Rectangle frame, long limit, boolean within) {
+        SelectionMask result = new SelectionMask(frame);
+        for (int row = 0; row < frame.height; row++) {
+            int offset = row * frame.width;
+            int col = 0;
+            while (col < frame.width) {
+                while (col < frame.width && (distances[offset + col] <= limit) != within) {
+                    col++;
+                }
+                int start = col;
+                while (col < frame.width && (distances[offset + col] <= limit) == within) {
+                    col++;
+                }
+                if (start < col) {
+                    result.setSpan(frame.y + row, frame.x + start, frame.x + col);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reduces polylines with the Ramer-Douglas-Peucker algorithm: points are dropped as long as
+ * the simplified line stays within the tolerance of every original point.
+ */
+public final class PathSimplifier {
+
+    private PathSimplifier() {
+    }
+
+    /**
+     * Returns the points to keep, always including the first and last point.
+     *
+     * @param points    the polyline
+     * @param tolerance the largest allowed distance between the original and simplified line
+     * @return a new list with the kept points in their original order
+     */
+    public static List<Point> simplify(List<Point> points, double tolerance) {
+        int count = points.size();
+        if (count < 3) {
+            return new ArrayList<>(points);
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+
+        // Ranges still to examine, as first and last index pairs; a stack avoids deep recursion
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = count - 1;
+
+        while (stackSize > 0) {
+            int last = stack[--stackSize];
+            int first = stack[--stackSize];
+
+            double maxDistance = -1;
+            int farthest = -1;
+            Point a = points.get(first);
+            Point b = points.get(last);
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegmentSquared(points.get(i), a, b);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0 && maxDistance > toleranceSquared) {
+                keep[farthest] = true;
+                if (stackSize + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[stackSize++] = first;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = last;
+            }
+        }
+
+        List<Point> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                result.add(points.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static double distanceToSegmentSquared(Point p, Point a, Point b) {
+        double dx = b.x - a.x;
+        double dy = b.y - a.y;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((p.x - a.x) * dx + (p.y - a.y) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = a.x + t * dx - p.x;
+        double ey = a.y + t * dy - p.y;
+        return ex * ex + ey * ey;
+    }
+}
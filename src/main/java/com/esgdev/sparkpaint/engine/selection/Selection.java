@@ -1,21 +1,46 @@
 package com.esgdev.sparkpaint.engine.selection;
 
+import com.esgdev.sparkpaint.engine.tools.FillTool;
+
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 
 /**
  * Represents a selection area in a drawing canvas.
  * The selection can be defined by a path (GeneralPath) and can contain an image.
+ * A raster mask can back the selection; when present it answers containment and bounds,
+ * and the path is only derived from it when an outline is needed.
  */
 public class Selection {
+    private static final int PARALLEL_KEYING_THRESHOLD = 512 * 512;
+    private static final int OUTLINE_DASH_LENGTH = 5;
+    /**
+     * Length of one dash plus one gap of the selection outline, in screen pixels.
+     */
+    public static final int OUTLINE_DASH_PERIOD = 2 * OUTLINE_DASH_LENGTH;
+    // Shared strokes for every dash phase, so painting the outline allocates nothing
+    private static final BasicStroke[] OUTLINE_STROKES = createOutlineStrokes();
     private GeneralPath path;
+    private SelectionMask mask;
     private BufferedImage content;
     private boolean transparent;
+    private int transparencyTolerance;
     private boolean active;
     private boolean modified;
+    // Counts in-place edits of the path, which its identity alone does not reveal
+    private int pathVersion;
+    private Shape scaledOutline;
+    private GeneralPath scaledOutlinePath;
+    private int scaledOutlinePathVersion;
+    private SelectionMask scaledOutlineMask;
+    private int scaledOutlineMaskVersion;
+    private double scaledOutlineZoom;
 
     /**
      * Creates a new Selection object with the specified rectangle and content.
@@ -26,6 +51,7 @@ public class Selection {
     public Selection(Rectangle rect, BufferedImage content) {
         this.path = new GeneralPath();
         path.append(rect, false);
+        this.mask = SelectionMask.fromRectangle(rect);
         this.content = content;
     }
 
@@ -40,12 +66,69 @@ public class Selection {
         this.content = content;
     }
 
+    /**
+     * Creates a new Selection object backed by a raster mask.
+     *
+     * @param mask    The mask defining the selection area.
+     * @param content The image content of the selection.
+     */
+    public Selection(SelectionMask mask, BufferedImage content) {
+        this.mask = mask;
+        this.content = content;
+    }
+
+    /**
+     * Returns the selection path. For a mask-only selection the path is built from the mask.
+     */
     public GeneralPath getPath() {
+        if (path == null && mask != null) {
+            path = new GeneralPath(mask.toPath());
+        }
         return path;
     }
 
+    /**
+     * Replaces the selection path. Any mask no longer matches the path and is dropped.
+     */
     public void setPath(GeneralPath path) {
         this.path = path;
+        this.mask = null;
+    }
+
+    /**
+     * Tells the selection that its path was edited in place, so the outline is scaled again.
+     * Tools that grow the path they passed in while dragging call this after each change.
+     */
+    public void pathEdited() {
+        pathVersion++;
+    }
+
+    public SelectionMask getMask() {
+        return mask;
+    }
+
+    /**
+     * Sets the raster mask of the selection. The mask frame must match the selection bounds,
+     * so masks built from the current path keep the existing outline.
+     */
+    public void setMask(SelectionMask mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Moves the selection outline and mask by the given offset.
+     */
+    public void translate(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        if (path != null) {
+            path.transform(AffineTransform.getTranslateInstance(dx, dy));
+            pathVersion++;
+        }
+        if (mask != null) {
+            mask.translate(dx, dy);
+        }
     }
 
     public BufferedImage getContent() {
@@ -56,33 +139,63 @@ public class Selection {
         this.content = content;
     }
 
+    /**
+     * Sets the content; when the selection is transparent, pixels matching the canvas background
+     * color within the transparency tolerance are made fully transparent in a copy of the content.
+     */
     public void setContent(BufferedImage content, Color canvasBackgroundColor) {
         if (transparent && content != null) {
-            // Create a new image with transparency
-            BufferedImage transparentImage = new BufferedImage(
-                content.getWidth(), content.getHeight(), BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2dTransparent = transparentImage.createGraphics();
-
-            // Draw the original content onto the new image
-            g2dTransparent.drawImage(content, 0, 0, null);
-
-            // Make the background color transparent
-            int backgroundColor = canvasBackgroundColor.getRGB();
-            for (int y = 0; y < transparentImage.getHeight(); y++) {
-                for (int x = 0; x < transparentImage.getWidth(); x++) {
-                    int pixel = transparentImage.getRGB(x, y);
-                    if (pixel == backgroundColor) { // Check if the pixel matches the background color
-                        transparentImage.setRGB(x, y, 0x00FFFFFF); // Set it to fully transparent
-                    }
-                }
-            }
-            g2dTransparent.dispose();
+            int width = content.getWidth();
+            int height = content.getHeight();
+            BufferedImage transparentImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+            // Copy straight into the raster of the new image and key out the background there
+            int[] pixels = ((DataBufferInt) transparentImage.getRaster().getDataBuffer()).getData();
+            content.getRGB(0, 0, width, height, pixels, 0, width);
+            keyOutColor(pixels, width, height, canvasBackgroundColor.getRGB(), transparencyTolerance);
+
             this.content = transparentImage;
         } else {
             this.content = content;
         }
     }
 
+    /**
+     * Replaces every pixel within tolerance of the key color with a fully transparent pixel.
+     * A tolerance of 0 only matches the exact color. Large images are processed in parallel by row.
+     */
+    private static void keyOutColor(int[] pixels, int width, int height, int keyColor, int tolerance) {
+        IntConsumer keyRow = row -> {
+            int end = (row + 1) * width;
+            for (int i = row * width; i < end; i++) {
+                int pixel = pixels[i];
+                if (pixel == keyColor || (tolerance > 0 && FillTool.colorDistance(pixel, keyColor) <= tolerance)) {
+                    pixels[i] = 0x00FFFFFF;
+                }
+            }
+        };
+
+        if ((long) width * height >= PARALLEL_KEYING_THRESHOLD) {
+            IntStream.range(0, height).parallel().forEach(keyRow);
+        } else {
+            for (int row = 0; row < height; row++) {
+                keyRow.accept(row);
+            }
+        }
+    }
+
+    public int getTransparencyTolerance() {
+        return transparencyTolerance;
+    }
+
+    /**
+     * Sets how far a color may be from the canvas background and still be made transparent,
+     * using the same color distance as the fill tools.
+     */
+    public void setTransparencyTolerance(int transparencyTolerance) {
+        this.transparencyTolerance = Math.max(0, transparencyTolerance);
+    }
+
     public boolean isTransparent() {
         return this.transparent;
     }
@@ -92,62 +205,187 @@ public class Selection {
     }
 
     public boolean contains(Point point) {
+        if (mask != null) {
+            return mask.contains(point);
+        }
         return path != null && path.contains(point);
     }
 
     public void clear() {
         path = null;
+        mask = null;
         content = null;
     }
 
 
     public void clearOutline() {
         path = null;
+        mask = null;
     }
 
 
     public boolean hasOutline() {
-        return path != null;
+        return path != null || mask != null;
     }
 
 
     /**
-     * Rotates the selection content and path by the specified degrees.
+     * Rotates the selection content and path by whole quarter turns, moving pixels exactly.
+     * Other angles need resampling; use {@link SelectionManager#transformSelection(AffineTransform)},
+     * which does that off the event thread.
      *
-     * @param degrees The angle in degrees to rotate the selection.
+     * @param degrees The angle in degrees to rotate the selection, a multiple of 90.
+     * @throws IllegalArgumentException if the angle is not a multiple of 90 degrees
      */
     public void rotate(int degrees) {
+        if (degrees % 90 != 0) {
+            throw new IllegalArgumentException("Selection.rotate only supports multiples of 90 degrees: " + degrees);
+        }
         if (content == null) return;
 
-        BufferedImage original = content;
-        int width = original.getWidth();
-        int height = original.getHeight();
-
-        // Create new rotated image
-        BufferedImage rotated = new BufferedImage(
-                degrees % 180 == 0 ? width : height,
-                degrees % 180 == 0 ? height : width,
-                BufferedImage.TYPE_INT_ARGB
-        );
-
-        Graphics2D g2d = rotated.createGraphics();
-        g2d.translate((rotated.getWidth() - width) / 2,
-                (rotated.getHeight() - height) / 2);
-        g2d.rotate(Math.toRadians(degrees), width / 2.0, height / 2.0);
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
+        int turns = ((degrees / 90) % 4 + 4) % 4;
+        if (turns == 0) return;
+
+        Rectangle bounds = getBounds();
+        content = rotateQuarterTurns(content, turns);
+        if (bounds == null) return;
+
+        // Keep the centre in place, snapped to whole pixels
+        boolean swap = turns % 2 == 1;
+        int newWidth = swap ? bounds.height : bounds.width;
+        int newHeight = swap ? bounds.width : bounds.height;
+        Rectangle rotated = new Rectangle(
+                bounds.x + (bounds.width - newWidth) / 2,
+                bounds.y + (bounds.height - newHeight) / 2,
+                newWidth, newHeight);
+
+        AffineTransform transform = quarterTurnTransform(bounds, rotated, turns);
+        if (mask != null) {
+            mask = rotateMask(mask, rotated, turns);
+            path = null;
+        } else if (path != null) {
+            path.transform(transform);
+            pathVersion++;
+        }
+    }
 
-        content = rotated;
+    /**
+     * Applies an affine transform to the selection about the centre of its bounds.
+     * The content is resampled with the given interpolation and the outline is transformed with it.
+     *
+     * @param transform     The rotation, scale or skew to apply, relative to the selection centre.
+     * @param interpolation How the content is resampled.
+     * @return The world transform that was applied, or null if there was nothing to transform.
+     */
+    public AffineTransform transform(AffineTransform transform, TransformResampler.Interpolation interpolation) {
+        Rectangle bounds = getBounds();
+        GeneralPath outline = getPath();
+        if (content == null || bounds == null || outline == null) return null;
+
+        AffineTransform world = centredTransform(transform, bounds);
+        GeneralPath transformed = new GeneralPath(outline);
+        transformed.transform(world);
+        Rectangle newBounds = transformed.getBounds();
+        if (newBounds.isEmpty()) return null;
+
+        content = TransformResampler.resample(content, bounds.getLocation(), world, newBounds, interpolation);
+        path = transformed;
+        if (mask != null) {
+            mask = SelectionMask.fromShape(transformed);
+        }
+        return world;
+    }
 
-        // Rotate the path
-        Rectangle bounds = path.getBounds();
-        AffineTransform transform = new AffineTransform();
-        transform.rotate(Math.toRadians(degrees), bounds.getCenterX(), bounds.getCenterY());
-        path.transform(transform);
+    /**
+     * Returns the transform that applies the given one about the centre of the bounds.
+     */
+    public static AffineTransform centredTransform(AffineTransform transform, Rectangle bounds) {
+        AffineTransform world = AffineTransform.getTranslateInstance(bounds.getCenterX(), bounds.getCenterY());
+        world.concatenate(transform);
+        world.translate(-bounds.getCenterX(), -bounds.getCenterY());
+        return world;
+    }
+
+    /**
+     * Rotates an image clockwise by whole quarter turns by moving pixels, without interpolation.
+     */
+    private static BufferedImage rotateQuarterTurns(BufferedImage source, int turns) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean swap = turns % 2 == 1;
+        int targetWidth = swap ? height : width;
+        int targetHeight = swap ? width : height;
+
+        int[] pixels = source.getRGB(0, 0, width, height, null, 0, width);
+        BufferedImage rotated = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) rotated.getRaster().getDataBuffer()).getData();
+
+        for (int y = 0; y < targetHeight; y++) {
+            int offset = y * targetWidth;
+            for (int x = 0; x < targetWidth; x++) {
+                int sx, sy;
+                if (turns == 1) {
+                    sx = y;
+                    sy = height - 1 - x;
+                } else if (turns == 2) {
+                    sx = width - 1 - x;
+                    sy = height - 1 - y;
+                } else {
+                    sx = width - 1 - y;
+                    sy = x;
+                }
+                target[offset + x] = pixels[sy * width + sx];
+            }
+        }
+        return rotated;
+    }
+
+    /**
+     * Maps the old bounds onto the rotated bounds, turning clockwise by quarter turns.
+     */
+    private static AffineTransform quarterTurnTransform(Rectangle from, Rectangle to, int turns) {
+        AffineTransform transform = AffineTransform.getTranslateInstance(to.x, to.y);
+        if (turns == 1) {
+            transform.translate(from.height, 0);
+        } else if (turns == 2) {
+            transform.translate(from.width, from.height);
+        } else {
+            transform.translate(0, from.width);
+        }
+        transform.quadrantRotate(turns);
+        transform.translate(-from.x, -from.y);
+        return transform;
+    }
+
+    private static SelectionMask rotateMask(SelectionMask source, Rectangle frame, int turns) {
+        Rectangle from = source.getBounds();
+        SelectionMask rotated = new SelectionMask(frame);
+        for (int y = 0; y < frame.height; y++) {
+            for (int x = 0; x < frame.width; x++) {
+                int sx, sy;
+                if (turns == 1) {
+                    sx = y;
+                    sy = from.height - 1 - x;
+                } else if (turns == 2) {
+                    sx = from.width - 1 - x;
+                    sy = from.height - 1 - y;
+                } else {
+                    sx = from.width - 1 - y;
+                    sy = x;
+                }
+                if (source.contains(from.x + sx, from.y + sy)) {
+                    rotated.set(frame.x + x, frame.y + y);
+                }
+            }
+        }
+        return rotated;
     }
 
 
     public Rectangle getBounds() {
+        if (mask != null) {
+            return mask.getBounds();
+        }
         return path != null ? path.getBounds() : null;
     }
 
@@ -157,8 +395,8 @@ public class Selection {
      * @param g2d The Graphics2D object to draw on.
      */
     public void drawSelectionContent(Graphics2D g2d) {
-        if (content != null && path != null) {
-            Rectangle bounds = path.getBounds();
+        Rectangle bounds = getBounds();
+        if (content != null && bounds != null) {
             g2d.drawImage(content, bounds.x, bounds.y, null);
         }
     }
@@ -170,33 +408,68 @@ public class Selection {
      * @param zoomFactor  The zoom factor for scaling the outline.
      */
     public void drawSelectionOutline(Graphics2D g2d, double zoomFactor) {
-        if (path == null) {
+        drawSelectionOutline(g2d, zoomFactor, 0);
+    }
+
+    /**
+     * Draws the dotted outline with the dashes shifted by the given phase, so repeated calls
+     * with an increasing phase animate the outline.
+     *
+     * @param g2d        The Graphics2D object to draw on.
+     * @param zoomFactor The zoom factor for scaling the outline.
+     * @param dashPhase  The dash offset, from 0 to OUTLINE_DASH_PERIOD - 1.
+     */
+    public void drawSelectionOutline(Graphics2D g2d, double zoomFactor, int dashPhase) {
+        Shape outline = getScaledOutline(zoomFactor);
+        if (outline == null) {
             return;
         }
+        int phase = Math.floorMod(dashPhase, OUTLINE_DASH_PERIOD);
 
-        float[] dashPattern = {5, 5}; // Dash pattern: 5px dash, 5px gap
-
-        BasicStroke dottedStroke1 = new BasicStroke(
-                1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
-                10.0f, dashPattern, 0);
+        // Black dashes, then white dashes in the gaps
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(OUTLINE_STROKES[phase]);
+        g2d.draw(outline);
 
-        BasicStroke dottedStroke2 = new BasicStroke(
-                1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
-                10.0f, dashPattern, 5);
+        g2d.setColor(Color.WHITE);
+        g2d.setStroke(OUTLINE_STROKES[(phase + OUTLINE_DASH_LENGTH) % OUTLINE_DASH_PERIOD]);
+        g2d.draw(outline);
+    }
 
-        // Scale the path to match the zoom factor
-        GeneralPath scaledPath = new GeneralPath(path);
-        scaledPath.transform(AffineTransform.getScaleInstance(zoomFactor, zoomFactor));
+    /**
+     * Returns the outline scaled to the zoom factor. The scaled outline is kept until the path,
+     * the mask or the zoom changes, so the marching ants only restroke it.
+     */
+    private Shape getScaledOutline(double zoomFactor) {
+        GeneralPath path = getPath();
+        if (path == null) {
+            return null;
+        }
+        int maskVersion = mask != null ? mask.getVersion() : 0;
+        if (scaledOutline != null && scaledOutlinePath == path && scaledOutlinePathVersion == pathVersion
+                && scaledOutlineMask == mask && scaledOutlineMaskVersion == maskVersion
+                && scaledOutlineZoom == zoomFactor) {
+            return scaledOutline;
+        }
 
-        // Draw the selection outline with the first dash pattern
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(dottedStroke1);
-        g2d.draw(scaledPath);
+        scaledOutline = path.createTransformedShape(AffineTransform.getScaleInstance(zoomFactor, zoomFactor));
+        scaledOutlinePath = path;
+        scaledOutlinePathVersion = pathVersion;
+        scaledOutlineMask = mask;
+        scaledOutlineMaskVersion = maskVersion;
+        scaledOutlineZoom = zoomFactor;
+        return scaledOutline;
+    }
 
-        // Draw the selection outline with the second dash pattern
-        g2d.setColor(Color.WHITE);
-        g2d.setStroke(dottedStroke2);
-        g2d.draw(scaledPath);
+    private static BasicStroke[] createOutlineStrokes() {
+        float[] dashPattern = {OUTLINE_DASH_LENGTH, OUTLINE_DASH_LENGTH};
+        BasicStroke[] strokes = new BasicStroke[OUTLINE_DASH_PERIOD];
+        for (int phase = 0; phase < OUTLINE_DASH_PERIOD; phase++) {
+            strokes[phase] = new BasicStroke(
+                    1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+                    10.0f, dashPattern, phase);
+        }
+        return strokes;
     }
 
     /**
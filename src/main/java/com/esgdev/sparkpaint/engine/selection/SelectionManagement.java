@@ -1,6 +1,7 @@
 package com.esgdev.sparkpaint.engine.selection;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 
 /**
  * Interface that exposes selection management functionality.
@@ -44,6 +45,20 @@ public interface SelectionManagement {
      */
     void rotateSelection(int degrees);
 
+    /**
+     * Rotates the selection content by an arbitrary angle.
+     *
+     * @param degrees The angle in degrees to rotate the selection, clockwise.
+     */
+    void rotateSelection(double degrees);
+
+    /**
+     * Applies a rotation, scale or skew to the selection about its centre.
+     *
+     * @param transform The transform to apply, relative to the selection centre.
+     */
+    void transformSelection(AffineTransform transform);
+
     /**
      * Flips the selection content either horizontally or vertically.
      *
@@ -51,6 +66,34 @@ public interface SelectionManagement {
      */
     void flipSelection(boolean horizontal);
 
+    /**
+     * Grows the selection outward by the given radius in pixels.
+     *
+     * @param radius the distance to grow by
+     */
+    void growSelection(int radius);
+
+    /**
+     * Shrinks the selection inward by the given radius in pixels.
+     *
+     * @param radius the distance to shrink by
+     */
+    void shrinkSelection(int radius);
+
+    /**
+     * Replaces the selection with a band around its edge.
+     *
+     * @param radius the distance the band extends to either side of the edge
+     */
+    void borderSelection(int radius);
+
+    /**
+     * Fades the selection content in over the given radius inside its edge.
+     *
+     * @param radius the width of the fade in pixels
+     */
+    void featherSelection(int radius);
+
     /**
      * Checks if the given world point is within the current selection.
      *
@@ -1,15 +1,17 @@
 package com.esgdev.sparkpaint.engine.selection;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
-import com.esgdev.sparkpaint.engine.layer.Layer;
 import com.esgdev.sparkpaint.engine.tools.DrawingTool;
 import com.esgdev.sparkpaint.engine.tools.ToolManager;
+import com.esgdev.sparkpaint.engine.tools.renderers.BulkFill;
 
+import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages the selection of areas within the drawing canvas.
@@ -19,6 +21,14 @@ public class SelectionManager implements SelectionManagement {
     private final DrawingCanvas canvas;
     public Selection selection;
 
+    // The full-quality content and accumulated transform behind a preview still waiting for its
+    // bicubic pass, so quick repeated transforms resample the original instead of the preview
+    private BufferedImage transformSource;
+    private Point transformOrigin;
+    private AffineTransform transformWorld;
+    private BufferedImage transformPreview;
+    private SwingWorker<BufferedImage, Void> transformWorker;
+
     public SelectionManager(DrawingCanvas canvas) {
         this.canvas = canvas;
     }
@@ -44,8 +54,8 @@ public class SelectionManager implements SelectionManagement {
     public void selectAll() {
         canvas.setCurrentTool(ToolManager.Tool.RECTANGLE_SELECTION);
 
-        // Create a composite image of all visible layers
-        BufferedImage compositeImage = createCompositeImage();
+        // The cached composite of all visible layers
+        BufferedImage compositeImage = canvas.getCompositeImage();
 
         if (compositeImage != null) {
             Rectangle rect = new Rectangle(0, 0, compositeImage.getWidth(), compositeImage.getHeight());
@@ -60,34 +70,6 @@ public class SelectionManager implements SelectionManagement {
         }
     }
 
-    /**
-     * Creates a composite image of all visible layers in the canvas.
-     *
-     * @return A BufferedImage containing the composite of all visible layers.
-     */
-    private BufferedImage createCompositeImage() {
-        // Get the dimensions from the current layer
-        BufferedImage currentLayer = canvas.getCurrentLayerImage();
-        if (currentLayer == null) return null;
-
-        int width = currentLayer.getWidth();
-        int height = currentLayer.getHeight();
-
-        BufferedImage composite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = composite.createGraphics();
-
-        // Draw all visible layers
-        List<Layer> layers = canvas.getLayers();
-        for (Layer layer : layers) {
-            if (layer.isVisible()) {
-                g2d.drawImage(layer.getImage(), 0, 0, null);
-            }
-        }
-
-        g2d.dispose();
-        return composite;
-    }
-
     /**
      * Deletes the current selection area from the current layer.
      * This method clears the selection and removes the selected area from the layer.
@@ -98,31 +80,120 @@ public class SelectionManager implements SelectionManagement {
         }
 
         canvas.saveToUndoStack();
-        Graphics2D g2d = canvas.getCurrentLayerImage().createGraphics();
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.CLEAR));
+        BufferedImage layerImage = canvas.getCurrentLayerImage();
 
         GeneralPath path = selection.getPath();
         if (path != null) {
-            g2d.fill(path);
+            // Clear only the covered runs inside the selection bounds
+            BulkFill.Coverage coverage = BulkFill.rasterize(path, layerImage.getWidth(), layerImage.getHeight());
+            BulkFill.fillSpans(layerImage, coverage, 0);
+            canvas.invalidateComposite(path.getBounds());
         }
 
-        g2d.dispose();
         selection.clear();
         canvas.notifyClipboardStateChanged();
         canvas.repaint();
     }
 
     /**
-     * Rotates the selection content by the specified degrees.
+     * Rotates the selection content by the specified degrees. Multiples of 90 degrees are exact;
+     * other angles are applied like {@link #transformSelection(AffineTransform)}.
      *
      * @param degrees The angle in degrees to rotate the selection.
      */
     public void rotateSelection(int degrees) {
         if (selection == null || selection.getContent() == null || !selection.isActive()) return;
+        if (degrees % 90 != 0) {
+            transformSelection(AffineTransform.getRotateInstance(Math.toRadians(degrees)));
+            return;
+        }
         selection.rotate(degrees);
         canvas.repaint();
     }
 
+    /**
+     * Rotates the selection content by an arbitrary angle. Multiples of 90 degrees are exact;
+     * other angles are applied like {@link #transformSelection(AffineTransform)}.
+     *
+     * @param degrees The angle in degrees to rotate the selection, clockwise.
+     */
+    public void rotateSelection(double degrees) {
+        if (degrees == Math.rint(degrees) && degrees % 90 == 0) {
+            rotateSelection((int) degrees);
+            return;
+        }
+        transformSelection(AffineTransform.getRotateInstance(Math.toRadians(degrees)));
+    }
+
+    /**
+     * Applies a rotation, scale or skew to the selection about its centre. A nearest-neighbour
+     * preview is shown right away, and the bicubic result replaces it once it has been computed
+     * in the background, provided the selection content has not changed in the meantime.
+     * Transforms applied while a bicubic pass is pending are combined with it and resampled
+     * from the content as it was before the first of them.
+     *
+     * @param transform The transform to apply, relative to the selection centre.
+     */
+    public void transformSelection(AffineTransform transform) {
+        if (selection == null || selection.getContent() == null || !selection.isActive()) return;
+
+        Selection target = selection;
+        Rectangle bounds = target.getBounds();
+        if (bounds == null) return;
+        if (transformPreview == null || target.getContent() != transformPreview) {
+            transformSource = target.getContent();
+            transformOrigin = bounds.getLocation();
+            transformWorld = new AffineTransform();
+        }
+        AffineTransform step = target.transform(transform, TransformResampler.Interpolation.NEAREST);
+        if (step == null) return;
+
+        AffineTransform world = new AffineTransform(step);
+        world.concatenate(transformWorld);
+        transformWorld = world;
+        BufferedImage source = transformSource;
+        Point origin = transformOrigin;
+        BufferedImage preview = target.getContent();
+        transformPreview = preview;
+        Rectangle targetBounds = target.getBounds();
+        canvas.repaint();
+
+        // The pending pass is superseded; the new one covers its transform as well
+        if (transformWorker != null) {
+            transformWorker.cancel(false);
+        }
+        transformWorker = new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() {
+                return TransformResampler.resample(source, origin, world,
+                        targetBounds, TransformResampler.Interpolation.BICUBIC);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    BufferedImage result = get();
+                    if (target.getContent() == preview) {
+                        target.setContent(result);
+                        canvas.repaint();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error transforming selection: " + e.getMessage());
+                } finally {
+                    if (transformPreview == preview) {
+                        transformPreview = null;
+                        transformSource = null;
+                        transformWorker = null;
+                    }
+                }
+            }
+        };
+        transformWorker.execute();
+    }
+
     /**
      * Flips the selection content either horizontally or vertically.
      *
@@ -138,6 +209,114 @@ public class SelectionManager implements SelectionManagement {
         canvas.repaint();
     }
 
+    /**
+     * Grows the selection outward by the given radius in pixels.
+     *
+     * @param radius the distance to grow by
+     */
+    public void growSelection(int radius) {
+        modifySelectionMask(mask -> DistanceTransform.grow(mask, radius, getCanvasBounds()));
+    }
+
+    /**
+     * Shrinks the selection inward by the given radius in pixels.
+     *
+     * @param radius the distance to shrink by
+     */
+    public void shrinkSelection(int radius) {
+        modifySelectionMask(mask -> DistanceTransform.shrink(mask, radius));
+    }
+
+    /**
+     * Replaces the selection with a band of the given radius around its edge.
+     *
+     * @param radius the distance the band extends to either side of the edge
+     */
+    public void borderSelection(int radius) {
+        modifySelectionMask(mask -> DistanceTransform.border(mask, radius, getCanvasBounds()));
+    }
+
+    /**
+     * Softens the edge of the selection content. The outline is kept; the content alpha
+     * fades in linearly over the given radius inside the edge.
+     *
+     * @param radius the width of the fade in pixels
+     */
+    public void featherSelection(int radius) {
+        SelectionMask mask = getModifiableMask();
+        if (mask == null || radius <= 0) return;
+
+        float[] distances = DistanceTransform.insideDistances(mask);
+        replaceSelection(mask, distances, radius);
+    }
+
+    /**
+     * Returns the mask of a selection that can be reshaped, or null. Selections that were
+     * moved or painted into hold pixels that are no longer on the canvas, so they are left alone.
+     */
+    private SelectionMask getModifiableMask() {
+        if (selection == null || !selection.hasOutline() || selection.isActive() || selection.isModified()) {
+            return null;
+        }
+        SelectionMask mask = selection.getMask();
+        return mask != null ? mask : SelectionMask.fromShape(selection.getPath());
+    }
+
+    private void modifySelectionMask(UnaryOperator<SelectionMask> operation) {
+        SelectionMask mask = getModifiableMask();
+        if (mask == null) return;
+
+        SelectionMask result = operation.apply(mask);
+        if (result.isEmpty()) {
+            selection.clear();
+            canvas.notifyClipboardStateChanged();
+            canvas.repaint();
+            return;
+        }
+        replaceSelection(result, null, 0);
+    }
+
+    /**
+     * Replaces the selection with one for the given mask, taking its content from the visible layers.
+     * When distances are given, content alpha is scaled by distance / radius up to full opacity.
+     */
+    private void replaceSelection(SelectionMask mask, float[] distances, int radius) {
+        Rectangle bounds = mask.getBounds();
+        BufferedImage content = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage composite = canvas.getCompositeImage();
+
+        if (composite != null) {
+            Rectangle area = bounds.intersection(new Rectangle(0, 0, composite.getWidth(), composite.getHeight()));
+            int[] row = new int[Math.max(0, area.width)];
+            for (int py = area.y; py < area.y + area.height; py++) {
+                composite.getRGB(area.x, py, area.width, 1, row, 0, area.width);
+                for (int i = 0; i < area.width; i++) {
+                    int px = area.x + i;
+                    if (!mask.contains(px, py)) {
+                        row[i] = 0;
+                    } else if (distances != null) {
+                        float weight = Math.min(1f, distances[(py - bounds.y) * bounds.width + px - bounds.x] / radius);
+                        int alpha = Math.round((row[i] >>> 24) * weight);
+                        row[i] = (alpha << 24) | (row[i] & 0x00FFFFFF);
+                    }
+                }
+                content.setRGB(area.x - bounds.x, py - bounds.y, area.width, 1, row, 0, area.width);
+            }
+        }
+
+        Selection modified = new Selection(mask, null);
+        modified.setTransparent(selection.isTransparent());
+        modified.setContent(content, canvas.getFillColor());
+        selection = modified;
+        canvas.notifyClipboardStateChanged();
+        canvas.repaint();
+    }
+
+    private Rectangle getCanvasBounds() {
+        BufferedImage currentLayer = canvas.getCurrentLayerImage();
+        return currentLayer != null ? new Rectangle(0, 0, currentLayer.getWidth(), currentLayer.getHeight()) : null;
+    }
+
     /**
      * Gets a graphics context appropriate for drawing - either for the current selection or current layer.
      *
@@ -0,0 +1,412 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+/**
+ * Raster representation of a selection: one bit per pixel, packed into longs row by row.
+ * The mask covers a frame rectangle in canvas coordinates; pixels outside the frame are never selected.
+ * Containment is a single bit lookup and boolean operations combine 64 pixels per step.
+ * A vector path is only built when one is asked for, and is cached until the mask changes.
+ */
+public class SelectionMask {
+    private int x;
+    private int y;
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    private int version;
+    private GeneralPath cachedPath;
+    private int cachedPathVersion = -1;
+
+    /**
+     * Creates an empty mask covering the given frame.
+     *
+     * @param frame The area of the canvas the mask can select, in canvas coordinates.
+     */
+    public SelectionMask(Rectangle frame) {
+        this.x = frame.x;
+        this.y = frame.y;
+        this.width = Math.max(0, frame.width);
+        this.height = Math.max(0, frame.height);
+        this.wordsPerRow = (this.width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * this.height];
+    }
+
+    /**
+     * Creates a mask with every pixel of the rectangle selected.
+     */
+    public static SelectionMask fromRectangle(Rectangle rect) {
+        SelectionMask mask = new SelectionMask(rect);
+        for (int row = 0; row < mask.height; row++) {
+            mask.setSpan(mask.y + row, mask.x, mask.x + mask.width);
+        }
+        return mask;
+    }
+
+    /**
+     * Creates a mask from a shape. A pixel is selected when its centre is inside the shape.
+     * The frame of the mask is the integer bounds of the shape.
+     */
+    public static SelectionMask fromShape(Shape shape) {
+        Rectangle frame = shape.getBounds();
+        SelectionMask mask = new SelectionMask(frame);
+        if (mask.width == 0 || mask.height == 0) {
+            return mask;
+        }
+
+        BufferedImage coverage = new BufferedImage(mask.width, mask.height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = coverage.createGraphics();
+        g2d.translate(-frame.x, -frame.y);
+        g2d.setColor(Color.WHITE);
+        g2d.fill(shape);
+        g2d.dispose();
+
+        byte[] data = ((DataBufferByte) coverage.getRaster().getDataBuffer()).getData();
+        for (int row = 0; row < mask.height; row++) {
+            int offset = row * mask.width;
+            int wordOffset = row * mask.wordsPerRow;
+            for (int col = 0; col < mask.width; col++) {
+                if (data[offset + col] != 0) {
+                    mask.bits[wordOffset + (col >>> 6)] |= 1L << (col & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the frame of the mask in canvas coordinates.
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(x, y, width, height);
+    }
+
+    /**
+     * Returns a number that changes whenever the selected pixels or the position change.
+     * Useful for caching data derived from the mask.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean contains(int px, int py) {
+        int col = px - x;
+        int row = py - y;
+        if (col < 0 || row < 0 || col >= width || row >= height) {
+            return false;
+        }
+        return (bits[row * wordsPerRow + (col >>> 6)] & (1L << (col & 63))) != 0;
+    }
+
+    public boolean contains(Point point) {
+        return contains(point.x, point.y);
+    }
+
+    /**
+     * Selects a single pixel, given in canvas coordinates. Pixels outside the frame are ignored.
+     */
+    public void set(int px, int py) {
+        int col = px - x;
+        int row = py - y;
+        if (col < 0 || row < 0 || col >= width || row >= height) {
+            return;
+        }
+        bits[row * wordsPerRow + (col >>> 6)] |= 1L << (col & 63);
+        version++;
+    }
+
+    /**
+     * Selects the pixels of row py from x0 inclusive to x1 exclusive, in canvas coordinates.
+     */
+    public void setSpan(int py, int x0, int x1) {
+        int row = py - y;
+        int from = Math.max(0, x0 - x);
+        int to = Math.min(width, x1 - x);
+        if (row < 0 || row >= height || from >= to) {
+            return;
+        }
+
+        int offset = row * wordsPerRow;
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            bits[offset + firstWord] |= firstMask & lastMask;
+        } else {
+            bits[offset + firstWord] |= firstMask;
+            Arrays.fill(bits, offset + firstWord + 1, offset + lastWord, -1L);
+            bits[offset + lastWord] |= lastMask;
+        }
+        version++;
+    }
+
+    /**
+     * Moves the mask by the given offset without touching its bits.
+     */
+    public void translate(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        x += dx;
+        y += dy;
+        if (cachedPath != null && cachedPathVersion == version) {
+            cachedPath.transform(AffineTransform.getTranslateInstance(dx, dy));
+            cachedPathVersion = version + 1;
+        }
+        version++;
+    }
+
+    public boolean isEmpty() {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of selected pixels.
+     */
+    public int count() {
+        int total = 0;
+        for (long word : bits) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    /**
+     * Returns a new mask selecting the pixels selected in this mask or the other.
+     */
+    public SelectionMask or(SelectionMask other) {
+        Rectangle frame = getBounds().union(other.getBounds());
+        return combine(frame, other, Operation.OR);
+    }
+
+    /**
+     * Returns a new mask selecting the pixels selected in both masks.
+     */
+    public SelectionMask and(SelectionMask other) {
+        Rectangle frame = getBounds().intersection(other.getBounds());
+        if (frame.isEmpty()) {
+            return new SelectionMask(new Rectangle(frame.x, frame.y, 0, 0));
+        }
+        return combine(frame, other, Operation.AND);
+    }
+
+    /**
+     * Returns a new mask selecting the pixels selected in this mask but not in the other.
+     */
+    public SelectionMask andNot(SelectionMask other) {
+        return combine(getBounds(), other, Operation.AND_NOT);
+    }
+
+    /**
+     * Returns a copy of this mask whose frame is shrunk to the selected pixels.
+     */
+    public SelectionMask trim() {
+        int minRow = height, maxRow = -1, minCol = width, maxCol = -1;
+        for (int row = 0; row < height; row++) {
+            int offset = row * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = bits[offset + w];
+                if (word == 0) {
+                    continue;
+                }
+                minRow = Math.min(minRow, row);
+                maxRow = row;
+                minCol = Math.min(minCol, (w << 6) + Long.numberOfTrailingZeros(word));
+                maxCol = Math.max(maxCol, (w << 6) + 63 - Long.numberOfLeadingZeros(word));
+            }
+        }
+        if (maxRow < 0) {
+            return new SelectionMask(new Rectangle(x, y, 0, 0));
+        }
+        Rectangle frame = new Rectangle(x + minCol, y + minRow, maxCol - minCol + 1, maxRow - minRow + 1);
+        return combine(frame, null, Operation.OR);
+    }
+
+    public SelectionMask copy() {
+        SelectionMask copy = new SelectionMask(getBounds());
+        System.arraycopy(bits, 0, copy.bits, 0, bits.length);
+        return copy;
+    }
+
+    /**
+     * Returns the outline of the selected pixels as a path that follows pixel edges exactly.
+     * Every separate region and every hole becomes its own closed loop; pixels touching only
+     * at a corner are treated as separate, matching 4-connected flood fills.
+     * The path is built on first use and cached until the mask changes.
+     */
+    public GeneralPath toPath() {
+        if (cachedPath == null || cachedPathVersion != version) {
+            cachedPath = traceOutline();
+            cachedPathVersion = version;
+        }
+        return cachedPath;
+    }
+
+    // Walking directions in canvas coordinates (y grows downwards), clockwise order
+    private static final int EAST = 0, SOUTH = 1, WEST = 2, NORTH = 3;
+    private static final int[] STEP_X = {1, 0, -1, 0};
+    private static final int[] STEP_Y = {0, 1, 0, -1};
+
+    /**
+     * Marching squares over the pixel corners. Each loop keeps the selected pixels on its right,
+     * so outer boundaries run clockwise and holes counter-clockwise.
+     */
+    private GeneralPath traceOutline() {
+        GeneralPath path = new GeneralPath(GeneralPath.WIND_EVEN_ODD);
+        // Horizontal edge (cx, cy) runs from corner (cx, cy) to (cx + 1, cy); vertical edge from (cx, cy) to (cx, cy + 1)
+        boolean[] horizontalVisited = new boolean[width * (height + 1)];
+        boolean[] verticalVisited = new boolean[(width + 1) * height];
+
+        for (int cy = 0; cy < height; cy++) {
+            for (int cx = 0; cx < width; cx++) {
+                // Every loop has an eastward edge: a selected pixel with an unselected pixel above it
+                if (horizontalVisited[cy * width + cx] || !local(cx, cy) || local(cx, cy - 1)) {
+                    continue;
+                }
+                traceLoop(path, cx, cy, horizontalVisited, verticalVisited);
+            }
+        }
+        return path;
+    }
+
+    private void traceLoop(GeneralPath path, int startX, int startY,
+                           boolean[] horizontalVisited, boolean[] verticalVisited) {
+        int cx = startX;
+        int cy = startY;
+        int direction = EAST;
+        path.moveTo(x + cx, y + cy);
+
+        do {
+            // Mark the edge about to be walked
+            switch (direction) {
+                case EAST:
+                    horizontalVisited[cy * width + cx] = true;
+                    break;
+                case WEST:
+                    horizontalVisited[cy * width + cx - 1] = true;
+                    break;
+                case SOUTH:
+                    verticalVisited[cy * (width + 1) + cx] = true;
+                    break;
+                default:
+                    verticalVisited[(cy - 1) * (width + 1) + cx] = true;
+                    break;
+            }
+            cx += STEP_X[direction];
+            cy += STEP_Y[direction];
+
+            // Choose the next edge from the two pixels ahead of the corner, preferring right turns
+            boolean aheadRight = aheadPixel(cx, cy, direction, true);
+            boolean aheadLeft = aheadPixel(cx, cy, direction, false);
+            int next;
+            if (!aheadRight) {
+                next = (direction + 1) & 3;
+            } else if (!aheadLeft) {
+                next = direction;
+            } else {
+                next = (direction + 3) & 3;
+            }
+
+            if (next != direction) {
+                path.lineTo(x + cx, y + cy);
+                direction = next;
+            }
+        } while (cx != startX || cy != startY || direction != EAST);
+
+        path.closePath();
+    }
+
+    /**
+     * Returns whether the pixel ahead of corner (cx, cy), on the right or left side of the walking direction, is selected.
+     */
+    private boolean aheadPixel(int cx, int cy, int direction, boolean right) {
+        switch (direction) {
+            case EAST:
+                return right ? local(cx, cy) : local(cx, cy - 1);
+            case SOUTH:
+                return right ? local(cx - 1, cy) : local(cx, cy);
+            case WEST:
+                return right ? local(cx - 1, cy - 1) : local(cx - 1, cy);
+            default:
+                return right ? local(cx, cy - 1) : local(cx - 1, cy - 1);
+        }
+    }
+
+    /**
+     * Returns whether the pixel at frame coordinates (col, row) is selected.
+     */
+    private boolean local(int col, int row) {
+        if (col < 0 || row < 0 || col >= width || row >= height) {
+            return false;
+        }
+        return (bits[row * wordsPerRow + (col >>> 6)] & (1L << (col & 63))) != 0;
+    }
+
+    private enum Operation {OR, AND, AND_NOT}
+
+    private SelectionMask combine(Rectangle frame, SelectionMask other, Operation operation) {
+        SelectionMask result = new SelectionMask(frame);
+        int tailBits = result.width & 63;
+        long tailMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+
+        for (int row = 0; row < result.height; row++) {
+            int py = result.y + row;
+            int offset = row * result.wordsPerRow;
+            for (int w = 0; w < result.wordsPerRow; w++) {
+                int px = result.x + (w << 6);
+                long a = wordAt(py, px);
+                long b = other != null ? other.wordAt(py, px) : 0;
+                long word;
+                switch (operation) {
+                    case AND:
+                        word = a & b;
+                        break;
+                    case AND_NOT:
+                        word = a & ~b;
+                        break;
+                    default:
+                        word = a | b;
+                        break;
+                }
+                if (w == result.wordsPerRow - 1) {
+                    word &= tailMask;
+                }
+                result.bits[offset + w] = word;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the 64 pixels of row py starting at canvas column px, as bits. Pixels outside the frame read as 0.
+     */
+    private long wordAt(int py, int px) {
+        int row = py - y;
+        if (row < 0 || row >= height) {
+            return 0;
+        }
+        int col = px - x;
+        int w = Math.floorDiv(col, 64);
+        int shift = Math.floorMod(col, 64);
+        long low = wordInRow(row, w) >>> shift;
+        long high = shift == 0 ? 0 : wordInRow(row, w + 1) << (64 - shift);
+        return low | high;
+    }
+
+    private long wordInRow(int row, int w) {
+        return w < 0 || w >= wordsPerRow ? 0 : bits[row * wordsPerRow + w];
+    }
+}
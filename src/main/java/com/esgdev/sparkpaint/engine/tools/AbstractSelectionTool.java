@@ -21,6 +21,7 @@ public abstract class AbstractSelectionTool implements DrawingTool {
     protected boolean isDragging = false;
     protected Point originalSelectionLocation = null;
     protected boolean transparencyEnabled = false;
+    protected int transparencyTolerance = 0;
 
     protected AbstractSelectionTool(DrawingCanvas canvas) {
         this.canvas = canvas;
@@ -30,6 +31,13 @@ public abstract class AbstractSelectionTool implements DrawingTool {
         this.transparencyEnabled = enabled;
     }
 
+    /**
+     * Sets how close to the background color a pixel must be to become transparent.
+     */
+    public void setTransparencyTolerance(int tolerance) {
+        this.transparencyTolerance = tolerance;
+    }
+
     /**
      * Handles mouse moved events to update the cursor.
      */
@@ -99,7 +107,7 @@ public abstract class AbstractSelectionTool implements DrawingTool {
         g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
         drawSelectionToCanvas(g2d, selection, content);
         g2d.dispose();
-        canvas.repaint();
+        canvas.repaintDocumentArea(null);
     }
 
     /**
@@ -115,7 +123,7 @@ public abstract class AbstractSelectionTool implements DrawingTool {
             copySelectionToPermanentCanvas();
         }
         canvas.clearSelection();
-        isDragging = false;
+        endSelectionMove();
         originalSelectionLocation = null;
     }
 
@@ -143,6 +151,34 @@ public abstract class AbstractSelectionTool implements DrawingTool {
         return transparentContent;
     }
 
+    /**
+     * Starts dragging the selection; the canvas paints a cached backdrop until the drag ends.
+     */
+    protected void beginSelectionMove() {
+        isDragging = true;
+        canvas.beginSelectionMove();
+    }
+
+    /**
+     * Moves the selection by the given offset and repaints only the area it left and entered.
+     */
+    protected void moveSelection(Selection selection, int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        Rectangle before = selection.getBounds();
+        selection.translate(dx, dy);
+        canvas.repaintSelectionMove(before, selection.getBounds());
+    }
+
+    /**
+     * Ends a drag started with {@link #beginSelectionMove()}.
+     */
+    protected void endSelectionMove() {
+        isDragging = false;
+        canvas.endSelectionMove();
+    }
+
     protected boolean isSelectionTooSmall(Rectangle bounds) {
         // Consider selections smaller than 3x3 pixels as "too small"
         return bounds == null || bounds.width < 3 || bounds.height < 3;
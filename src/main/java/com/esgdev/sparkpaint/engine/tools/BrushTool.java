@@ -9,6 +9,7 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
 
 /**
  * BrushTool is a drawing tool that allows users to paint on a canvas using various brush shapes.
@@ -27,15 +28,26 @@ public class BrushTool implements DrawingTool {
     public static final int DEFAULT_BLEND_STRENGTH = 25;
     public static final int DEFAULT_SPRAY_DENSITY = 25;
     public static final int DEFAULT_SPRAY_SIZE = 25;
+    public static final int DEFAULT_SPACING = 25;
+    public static final int MAX_SPACING = 100;
 
     private final DrawingCanvas canvas;
     private final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
-    private Point lastPoint;
     private BrushShape shape = BrushShape.SPRAY;
     private int size = DEFAULT_SPRAY_SIZE;
     private int sprayDensity = DEFAULT_SPRAY_DENSITY;
     private boolean useAntiAliasing = true;
     private float maxBlendStrength = 0.1f;  // Range: 0.01f to 1.0f
+    private int spacingPercent = DEFAULT_SPACING;  // Distance between dabs as a percentage of the size
+    private final StrokeInterpolator interpolator = new StrokeInterpolator();
+    private final SplittableRandom strokeSeeds = new SplittableRandom();
+    // Seed of the current or last stroke, and whether the next stroke should reuse it
+    private long strokeSeed;
+    private boolean reuseSeed;
+    // Set only while a press accepted by mousePressed is held
+    private boolean strokeActive;
+    // Whether the last drag left the selection, so the stroke restarts where it comes back
+    private boolean outsideSelection;
 
     // Will be initialized on first use
     private BrushToolRenderer renderer;
@@ -68,46 +80,48 @@ public class BrushTool implements DrawingTool {
             return; // Don't draw outside selection when one exists
         }
 
-        // Save last point and update canvas
-        lastPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
         canvas.saveToUndoStack();
-
-        // Get appropriate graphics context and draw
-        Graphics2D g2d;
-        Point drawPoint = lastPoint;
-
         if (selection != null && selection.hasOutline()) {
             selection.setModified(true);
-            // Get drawing graphics from the selection manager
-            g2d = canvas.getDrawingGraphics();
-
-            // Get selection bounds to adjust coordinates
-            Rectangle bounds = selection.getBounds();
-
-            // Adjust coordinates relative to the selection bounds
-            drawPoint = new Point(lastPoint.x - bounds.x, lastPoint.y - bounds.y);
-        } else {
-            // Draw on current layer
-            g2d = canvas.getCurrentLayerImage().createGraphics();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                    useAntiAliasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
         }
+        strokeActive = true;
+        outsideSelection = false;
 
-        drawBrush(e, drawPoint, g2d);
-        g2d.dispose();
+        // Lazy initialization of renderer if needed
+        if (renderer == null) {
+            renderer = new BrushToolRenderer();
+        }
 
-        canvas.repaint();
+        // Start the stroke with its own seed, so it can be painted again exactly
+        BrushToolRenderer brushRenderer = renderer;
+        if (!reuseSeed) {
+            strokeSeed = strokeSeeds.nextLong();
+        }
+        reuseSeed = false;
+        long seed = strokeSeed;
+        canvas.getStrokeRasterizer().submit(() -> {
+            brushRenderer.endStroke();
+            brushRenderer.setSeed(seed);
+        }, null);
+
+        // Place a single dab under the cursor
+        float zoomFactor = canvas.getZoomFactor();
+        interpolator.begin(e.getX() / zoomFactor, e.getY() / zoomFactor);
+        drawDabs(e, selection);
     }
 
     /**
      * Handles mouse drag events to continue drawing.
-     * Converts the screen coordinates to world coordinates and checks if the drag is within a selection.
-     * If a selection exists, it only allows drawing within that selection.
+     * Dabs are placed at even spacing along the path from the previous event, so fast strokes
+     * do not break up into dots and slow strokes do not pile dabs onto the same pixels.
      *
      * @param e The mouse event triggering the drawing.
      */
     @Override
     public void mouseDragged(MouseEvent e) {
+        if (!strokeActive) {
+            return; // The press that started this drag did not start a stroke
+        }
         Selection selection = canvas.getSelection();
 
         // Convert screen point to world coordinates
@@ -115,43 +129,30 @@ public class BrushTool implements DrawingTool {
 
         // If there's a selection, only proceed if dragging inside it
         if (selection != null && selection.hasOutline() && !selection.contains(worldPoint)) {
+            outsideSelection = true;
             return; // Don't draw outside selection when one exists
         }
 
-        // Get current point and update
-        Point currentPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
-
-        // Get appropriate graphics context for drawing
-        Graphics2D g2d;
-        Point drawPoint = currentPoint;
-
-        if (selection != null && selection.hasOutline()) {
-            // Get drawing graphics from the selection manager
-            g2d = canvas.getDrawingGraphics();
-
-            // Get selection bounds to adjust coordinates
-            Rectangle bounds = selection.getBounds();
-
-            // Adjust coordinates relative to the selection bounds
-            drawPoint = new Point(currentPoint.x - bounds.x, currentPoint.y - bounds.y);
+        float zoomFactor = canvas.getZoomFactor();
+        if (outsideSelection) {
+            // Coming back into the selection starts a new run of dabs rather than joining the points
+            outsideSelection = false;
+            interpolator.begin(e.getX() / zoomFactor, e.getY() / zoomFactor);
         } else {
-            // Draw on current layer
-            g2d = canvas.getCurrentLayerImage().createGraphics();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                    useAntiAliasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+            double spacing = size * spacingPercent / 100.0;
+            if (interpolator.moveTo(e.getX() / zoomFactor, e.getY() / zoomFactor, spacing) == 0) {
+                return;
+            }
         }
-
-        drawBrush(e, drawPoint, g2d);
-        g2d.dispose();
-
-        lastPoint = currentPoint;
-        canvas.repaint();
+        drawDabs(e, selection);
     }
 
     /**
-     * Delegates drawing to the BrushToolRenderer.
+     * Queues the dabs placed by the interpolator on the stroke rasterizer, for the selection
+     * content when there is a selection and for the current layer otherwise. Everything the
+     * job needs is captured here, so it does not depend on tool settings changing later.
      */
-    private void drawBrush(MouseEvent e, Point p, Graphics2D g2d) {
+    private void drawDabs(MouseEvent e, Selection selection) {
         Color paintColor;
         if (SwingUtilities.isLeftMouseButton(e)) {
             paintColor = canvas.getDrawingColor();
@@ -160,36 +161,70 @@ public class BrushTool implements DrawingTool {
         } else {
             return;
         }
-
-        // Lazy initialization of renderer if needed
         if (renderer == null) {
-            renderer = new BrushToolRenderer();
+            return;
         }
 
         BufferedImage targetImage;
-        Selection selection = canvas.getSelection();
+        Shape clip = null;
+        Point offset = new Point();
         if (selection != null && selection.hasOutline()) {
             targetImage = selection.getContent();
+            // Get the selection clip from the selection manager
+            Graphics2D g2d = canvas.getDrawingGraphics();
+            clip = g2d.getClip();
+            g2d.dispose();
+
+            // Dabs are drawn relative to the selection bounds
+            offset = selection.getBounds().getLocation();
         } else {
             targetImage = canvas.getCurrentLayerImage();
         }
 
-        // Delegate to renderer
-        renderer.drawBrush(
-                targetImage,
-                shape,
-                p.x, p.y, size,
-                paintColor,
-                sprayDensity,
-                useAntiAliasing,
-                maxBlendStrength,
-                g2d.getClip()
-        );
+        // Dab centres in image coordinates, and the world area they cover
+        int count = interpolator.getDabCount();
+        int[] dabs = new int[count * 2];
+        Rectangle dirty = null;
+        for (int i = 0; i < count; i++) {
+            int x = (int) Math.floor(interpolator.getX(i));
+            int y = (int) Math.floor(interpolator.getY(i));
+            dabs[i * 2] = x - offset.x;
+            dabs[i * 2 + 1] = y - offset.y;
+            Rectangle dab = new Rectangle(x - size / 2 - 1, y - size / 2 - 1, size + 2, size + 2);
+            dirty = dirty == null ? dab : dirty.union(dab);
+        }
+
+        BrushToolRenderer brushRenderer = renderer;
+        BrushShape dabShape = shape;
+        int dabSize = size;
+        int density = sprayDensity;
+        boolean antiAliased = useAntiAliasing;
+        float blendStrength = maxBlendStrength;
+        Shape dabClip = clip;
+        canvas.getStrokeRasterizer().submit(() -> {
+            for (int i = 0; i < count; i++) {
+                brushRenderer.drawBrush(targetImage, dabShape, dabs[i * 2], dabs[i * 2 + 1], dabSize,
+                        paintColor, density, antiAliased, blendStrength, dabClip);
+            }
+            // Blend this event's dabs onto the image in one pass
+            brushRenderer.compositeStroke();
+        }, dirty);
     }
 
+    /**
+     * Ends the stroke and waits for its dabs, so the layers are complete once the mouse is released.
+     */
     @Override
     public void mouseReleased(MouseEvent e) {
-        // No action needed for mouse released
+        if (!strokeActive) {
+            return;
+        }
+        strokeActive = false;
+        if (renderer != null) {
+            StrokeRasterizer rasterizer = canvas.getStrokeRasterizer();
+            rasterizer.submit(renderer::endStroke, null);
+            rasterizer.finish();
+        }
     }
 
     @Override
@@ -238,7 +273,32 @@ public class BrushTool implements DrawingTool {
         this.sprayDensity = sprayDensity;
     }
 
+    public void setSpacing(int spacingPercent) {
+        this.spacingPercent = Math.max(1, Math.min(MAX_SPACING, spacingPercent));
+    }
+
+    public int getSpacing() {
+        return spacingPercent;
+    }
+
     public void setAntiAliasing(boolean useAntiAliasing) {
         this.useAntiAliasing = useAntiAliasing;
     }
+
+    /**
+     * Returns the seed of the current or last stroke. A stroke started with this seed and the same
+     * settings and mouse input places the same spray droplets.
+     */
+    public long getStrokeSeed() {
+        return strokeSeed;
+    }
+
+    /**
+     * Makes the next stroke use the given seed instead of a fresh one, so a recorded stroke can be
+     * painted again exactly.
+     */
+    public void setStrokeSeed(long seed) {
+        this.strokeSeed = seed;
+        this.reuseSeed = true;
+    }
 }
\ No newline at end of file
@@ -56,6 +56,27 @@ public interface DrawingTool {
         return new Rectangle(x, y, width, height);
     }
 
+    /**
+     * Returns the area a stroke of the given thickness between two points can touch,
+     * in the coordinates of the points.
+     */
+    static Rectangle strokeBounds(Point from, Point to, float thickness) {
+        Rectangle bounds = new Rectangle(from);
+        bounds.add(to);
+        return strokeBounds(bounds, thickness);
+    }
+
+    /**
+     * Returns the area a shape with the given bounds can touch when outlined with a stroke
+     * of the given thickness, including a pixel for antialiasing.
+     */
+    static Rectangle strokeBounds(Rectangle shapeBounds, float thickness) {
+        int padding = (int) Math.ceil(thickness) + 1;
+        Rectangle bounds = new Rectangle(shapeBounds);
+        bounds.grow(padding, padding);
+        return bounds;
+    }
+
     default void applySelectionClip(Graphics2D g2d, Selection selection) {
         if (selection != null && selection.hasOutline()) {
             Rectangle selectionBounds = selection.getBounds();
@@ -3,6 +3,7 @@ package com.esgdev.sparkpaint.engine.tools;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
 import com.esgdev.sparkpaint.engine.tools.renderers.EllipseToolRenderer;
+import com.esgdev.sparkpaint.engine.tools.renderers.BulkFill;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
@@ -13,6 +14,8 @@ public class EllipseTool implements DrawingTool {
     private final DrawingCanvas canvas;
     private final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     private Point startPoint;
+    // World area of the last preview on the tool canvas
+    private Rectangle previewArea;
     private boolean isFilled;
     private boolean isCenterBased = false;
 
@@ -43,6 +46,7 @@ public class EllipseTool implements DrawingTool {
 
         // Save start point using appropriate coordinate system
         startPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
+        previewArea = null;
         canvas.saveToUndoStack();
     }
 
@@ -57,10 +61,12 @@ public class EllipseTool implements DrawingTool {
         BufferedImage tempCanvas = canvas.getToolCanvas();
         Graphics2D g2d = tempCanvas.createGraphics();
 
-        // Clear the temp canvas
-        g2d.setComposite(AlphaComposite.Clear);
-        g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-        g2d.setComposite(AlphaComposite.SrcOver);
+        // Clear the previous preview, or the whole temp canvas the first time
+        if (previewArea != null) {
+            BulkFill.fill(tempCanvas, previewArea, 0);
+        } else {
+            BulkFill.clear(tempCanvas);
+        }
 
         applySelectionClip(g2d, selection);
 
@@ -74,7 +80,12 @@ public class EllipseTool implements DrawingTool {
                 canvas.getLineThickness(), isFilled, true);
 
         g2d.dispose();
-        canvas.repaint();
+
+        // Repaint where the previous preview was and where the new one is; the dashed
+        // outline of a transparent preview is two pixels wider than the line
+        Rectangle area = DrawingTool.strokeBounds(bounds, canvas.getLineThickness() + 2);
+        canvas.repaintPreviewArea(previewArea != null ? previewArea.union(area) : area);
+        previewArea = area;
     }
 
     @Override
@@ -98,10 +109,15 @@ public class EllipseTool implements DrawingTool {
 
         drawContext.g2d.dispose();
 
+        // Repaint the final ellipse together with the preview it replaces
+        Rectangle worldBounds = renderer.calculateEllipseBounds(startPoint, point, isShiftDown, isCenterBased);
+        Rectangle area = DrawingTool.strokeBounds(worldBounds, canvas.getLineThickness());
+        canvas.repaintDocumentArea(previewArea != null ? previewArea.union(area) : area);
+
         // Clear the temp canvas and reset state
         canvas.setToolCanvas(null);
         startPoint = null;
-        canvas.repaint();
+        previewArea = null;
     }
 
     @Override
@@ -3,6 +3,8 @@ package com.esgdev.sparkpaint.engine.tools;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
 import com.esgdev.sparkpaint.engine.tools.renderers.FillPreview;
+import com.esgdev.sparkpaint.engine.tools.renderers.FloodSpans;
+import com.esgdev.sparkpaint.engine.tools.renderers.BulkFill;
 import com.esgdev.sparkpaint.engine.tools.renderers.FillRenderer;
 
 import javax.swing.*;
@@ -15,6 +17,7 @@ import java.awt.image.BufferedImage;
 
 public class FillTool implements DrawingTool {
     public static final int DEFAULT_FILL_EPSILON = 100;
+    private static final int REFINE_DELAY_MS = 120;
     private final DrawingCanvas canvas;
     private final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     private int epsilon;
@@ -24,9 +27,12 @@ public class FillTool implements DrawingTool {
     private Point initialClickPoint; // For smart gradient fill
     private final FillPreview gradientPreview;
     private final FillRenderer gradientRenderer;
+    private final Timer refineTimer;
+    private Rectangle previewBounds; // Area of the tool canvas covered by the last preview
 
     public enum FillMode {
         SMART_FILL("Smart Fill"),
+        REPLACE_COLOR("Replace Color Everywhere"),
         CANVAS_FILL("Entire region"),
         LINEAR_GRADIENT("Linear Gradient"),
         SMART_LINEAR("Smart Linear Gradient"),
@@ -51,6 +57,8 @@ public class FillTool implements DrawingTool {
         this.epsilon = DEFAULT_FILL_EPSILON;
         this.gradientPreview = new FillPreview(canvas);
         this.gradientRenderer = new FillRenderer(canvas);
+        this.refineTimer = new Timer(REFINE_DELAY_MS, e -> renderGradientPreview(false));
+        this.refineTimer.setRepeats(false);
     }
 
     public void setFillMode(FillMode mode) {
@@ -159,12 +167,15 @@ public class FillTool implements DrawingTool {
             case SMART_FILL:
                 gradientRenderer.smartFill(targetImage, fillPoint.x, fillPoint.y, targetColor, replacementColor, epsilon, clipPath);
                 break;
+            case REPLACE_COLOR:
+                gradientRenderer.replaceColor(targetImage, targetColor, replacementColor, epsilon, clipPath);
+                break;
             case CANVAS_FILL:
                 gradientRenderer.canvasFill(targetImage, replacementColor, clipPath);
                 break;
         }
 
-        canvas.repaint();
+        canvas.repaintDocumentArea(null);
     }
 
     @Override
@@ -176,52 +187,69 @@ public class FillTool implements DrawingTool {
             // Get current point
             gradientEndPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
 
-            // Create temporary canvas for preview
-            BufferedImage tempCanvas = canvas.getToolCanvas();
-            if (tempCanvas == null) {
-                int width = canvas.getCurrentLayerImage().getWidth();
-                int height = canvas.getCurrentLayerImage().getHeight();
-                tempCanvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-                canvas.setToolCanvas(tempCanvas);
+            // Draft quality while moving, refined once the pointer rests
+            renderGradientPreview(true);
+            if (fillMode == FillMode.SMART_LINEAR || fillMode == FillMode.SMART_CIRCULAR) {
+                refineTimer.restart();
             }
+        }
+    }
 
-            // Clear and prepare the preview
-            Graphics2D g2d = tempCanvas.createGraphics();
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-            g2d.setComposite(AlphaComposite.SrcOver);
+    /**
+     * Redraws the gradient preview on the tool canvas, clearing only the area of the previous preview.
+     */
+    private void renderGradientPreview(boolean draft) {
+        if (!isDrawingGradient || gradientEndPoint == null) return;
+
+        // Create temporary canvas for preview
+        BufferedImage tempCanvas = canvas.getToolCanvas();
+        if (tempCanvas == null) {
+            int width = canvas.getCurrentLayerImage().getWidth();
+            int height = canvas.getCurrentLayerImage().getHeight();
+            tempCanvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            canvas.setToolCanvas(tempCanvas);
+            previewBounds = null;
+        }
 
-            // Get selection information for preview
-            Selection selection = canvas.getSelection();
-            GeneralPath clipPath = null;
-            if (selection != null && selection.hasOutline()) {
-                clipPath = selection.getPath();
-            }
+        // Clear the previous preview and prepare the next one
+        if (previewBounds != null) {
+            BulkFill.fill(tempCanvas, previewBounds, 0);
+        } else {
+            BulkFill.clear(tempCanvas);
+        }
+        Graphics2D g2d = tempCanvas.createGraphics();
 
-            switch (fillMode) {
-                case SMART_LINEAR:
-                    CoordinateContext ctx = CoordinateContext.create(canvas, selection,
-                            initialClickPoint, gradientStartPoint, gradientEndPoint);
-                    gradientPreview.previewSmartLinear(g2d, initialClickPoint, gradientStartPoint, gradientEndPoint,
-                            clipPath, ctx, epsilon);
-                    break;
-                case LINEAR_GRADIENT:
-                    gradientPreview.previewLinearGradient(g2d, gradientStartPoint, gradientEndPoint, clipPath);
-                    break;
-                case CIRCULAR_GRADIENT:
-                    gradientPreview.previewCircularGradient(g2d, gradientStartPoint, gradientEndPoint, clipPath);
-                    break;
-                case SMART_CIRCULAR:
-                    CoordinateContext ctx2 = CoordinateContext.create(canvas, selection,
-                            initialClickPoint, gradientStartPoint, gradientEndPoint);
-                    gradientPreview.previewSmartCircular(g2d, initialClickPoint, gradientStartPoint, gradientEndPoint,
-                            clipPath, ctx2, epsilon);
-                    break;
-            }
-            g2d.dispose();
+        // Get selection information for preview
+        Selection selection = canvas.getSelection();
+        GeneralPath clipPath = null;
+        if (selection != null && selection.hasOutline()) {
+            clipPath = selection.getPath();
+        }
 
-            canvas.repaint();
+        switch (fillMode) {
+            case SMART_LINEAR:
+                CoordinateContext ctx = CoordinateContext.create(canvas, selection,
+                        initialClickPoint, gradientStartPoint, gradientEndPoint);
+                gradientPreview.previewSmartLinear(g2d, initialClickPoint, gradientStartPoint, gradientEndPoint,
+                        clipPath, ctx, epsilon, draft);
+                break;
+            case LINEAR_GRADIENT:
+                gradientPreview.previewLinearGradient(g2d, gradientStartPoint, gradientEndPoint, clipPath);
+                break;
+            case CIRCULAR_GRADIENT:
+                gradientPreview.previewCircularGradient(g2d, gradientStartPoint, gradientEndPoint, clipPath);
+                break;
+            case SMART_CIRCULAR:
+                CoordinateContext ctx2 = CoordinateContext.create(canvas, selection,
+                        initialClickPoint, gradientStartPoint, gradientEndPoint);
+                gradientPreview.previewSmartCircular(g2d, initialClickPoint, gradientStartPoint, gradientEndPoint,
+                        clipPath, ctx2, epsilon, draft);
+                break;
         }
+        g2d.dispose();
+        previewBounds = gradientPreview.getDirtyBounds();
+
+        canvas.repaint();
     }
 
     @Override
@@ -232,6 +260,8 @@ public class FillTool implements DrawingTool {
                 fillMode == FillMode.SMART_CIRCULAR) && isDrawingGradient) {
             Selection selection = canvas.getSelection();
 
+            refineTimer.stop();
+
             // Get final gradient end point
             gradientEndPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
 
@@ -285,8 +315,14 @@ public class FillTool implements DrawingTool {
                     int targetRGB = targetImage.getRGB(adjustedClickPoint.x, adjustedClickPoint.y);
                     Color targetColor = new Color(targetRGB, true);
 
-                    gradientRenderer.applySmartLinear(targetImage, adjustedClickPoint.x, adjustedClickPoint.y,
-                            targetColor, adjustedStart, adjustedEnd, epsilon, clipPath);
+                    // Paint the region the preview already flooded, if it is still the right one
+                    FloodSpans region = gradientPreview.getRegion(targetImage, adjustedClickPoint, epsilon);
+                    if (region != null) {
+                        gradientRenderer.applySmartLinear(targetImage, region, adjustedStart, adjustedEnd);
+                    } else {
+                        gradientRenderer.applySmartLinear(targetImage, adjustedClickPoint.x, adjustedClickPoint.y,
+                                targetColor, adjustedStart, adjustedEnd, epsilon, clipPath);
+                    }
                 } catch (Exception ex) {
                     // Log error and recover gracefully
                     System.err.println("Error applying smart gradient fill: " + ex.getMessage());
@@ -311,8 +347,14 @@ public class FillTool implements DrawingTool {
                     int targetRGB = targetImage.getRGB(adjustedClickPoint.x, adjustedClickPoint.y);
                     Color targetColor = new Color(targetRGB, true);
 
-                    gradientRenderer.applySmartCircular(targetImage, adjustedClickPoint.x, adjustedClickPoint.y,
-                            targetColor, adjustedStart, adjustedEnd, epsilon, clipPath);
+                    // Paint the region the preview already flooded, if it is still the right one
+                    FloodSpans region = gradientPreview.getRegion(targetImage, adjustedClickPoint, epsilon);
+                    if (region != null) {
+                        gradientRenderer.applySmartCircular(targetImage, region, adjustedStart, adjustedEnd);
+                    } else {
+                        gradientRenderer.applySmartCircular(targetImage, adjustedClickPoint.x, adjustedClickPoint.y,
+                                targetColor, adjustedStart, adjustedEnd, epsilon, clipPath);
+                    }
                 } catch (Exception ex) {
                     // Log error and recover gracefully
                     System.err.println("Error applying smart circular gradient fill: " + ex.getMessage());
@@ -327,8 +369,9 @@ public class FillTool implements DrawingTool {
             gradientEndPoint = null;
             initialClickPoint = null;
             gradientPreview.clearMask();
+            previewBounds = null;
             canvas.setToolCanvas(null);
-            canvas.repaint();
+            canvas.repaintDocumentArea(null);
         }
     }
 
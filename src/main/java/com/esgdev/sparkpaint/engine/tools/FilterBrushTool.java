@@ -2,6 +2,7 @@ package com.esgdev.sparkpaint.engine.tools;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
+import com.esgdev.sparkpaint.engine.tools.renderers.FalloffMask;
 import com.esgdev.sparkpaint.engine.tools.renderers.FilterBrushRenderer;
 
 import java.awt.*;
@@ -25,6 +26,7 @@ public class FilterBrushTool implements DrawingTool {
 
     public static final int DEFAULT_SIZE = 25;
     public static final int DEFAULT_STRENGTH = 25;
+    public static final int DEFAULT_HARDNESS = 0;
 
     private final DrawingCanvas canvas;
     private final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
@@ -32,6 +34,8 @@ public class FilterBrushTool implements DrawingTool {
     private FilterType filterType = FilterType.BLUR;
     private int size = DEFAULT_SIZE;
     private float strength = DEFAULT_STRENGTH / 100f;  // Range: 0.01f to 1.0f
+    private float hardness = DEFAULT_HARDNESS / 100f;  // Range: 0.0f to 1.0f
+    private FalloffMask.Curve falloff = FalloffMask.Curve.LINEAR;
 
     // Will be initialized on first use
     private FilterBrushRenderer renderer;
@@ -64,29 +68,11 @@ public class FilterBrushTool implements DrawingTool {
         lastPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
         canvas.saveToUndoStack();
 
-        // Get appropriate graphics context and apply filter
-        Graphics2D g2d;
-        Point drawPoint = lastPoint;
-
         if (selection != null && selection.hasOutline()) {
             selection.setModified(true);
-            // Get drawing graphics from the selection manager
-            g2d = canvas.getDrawingGraphics();
-
-            // Get selection bounds to adjust coordinates
-            Rectangle bounds = selection.getBounds();
-
-            // Adjust coordinates relative to the selection bounds
-            drawPoint = new Point(lastPoint.x - bounds.x, lastPoint.y - bounds.y);
-        } else {
-            // Draw on current layer
-            g2d = canvas.getCurrentLayerImage().createGraphics();
         }
 
-        applyFilter(e, drawPoint, g2d);
-        g2d.dispose();
-
-        canvas.repaint();
+        applyFilter(lastPoint, selection);
     }
 
     @Override
@@ -103,58 +89,67 @@ public class FilterBrushTool implements DrawingTool {
 
         // Get current point and update
         Point currentPoint = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
-
-        // Get appropriate graphics context for drawing
-        Graphics2D g2d;
-        Point drawPoint = currentPoint;
-
-        if (selection != null && selection.hasOutline()) {
-            // Get drawing graphics from the selection manager
-            g2d = canvas.getDrawingGraphics();
-
-            // Get selection bounds to adjust coordinates
-            Rectangle bounds = selection.getBounds();
-
-            // Adjust coordinates relative to the selection bounds
-            drawPoint = new Point(currentPoint.x - bounds.x, currentPoint.y - bounds.y);
-        } else {
-            // Draw on current layer
-            g2d = canvas.getCurrentLayerImage().createGraphics();
-        }
-
-        applyFilter(e, drawPoint, g2d);
-        g2d.dispose();
-
+        applyFilter(currentPoint, selection);
         lastPoint = currentPoint;
-        canvas.repaint();
     }
 
-    private void applyFilter(MouseEvent e, Point p, Graphics2D g2d) {
+    /**
+     * Queues a filter dab at the world point on the stroke rasterizer, for the selection content
+     * when there is a selection and for the current layer otherwise.
+     */
+    private void applyFilter(Point worldPoint, Selection selection) {
         BufferedImage targetImage;
-        Selection selection = canvas.getSelection();
+        Shape clip = null;
+        Point drawPoint = worldPoint;
+
         if (selection != null && selection.hasOutline()) {
             targetImage = selection.getContent();
+            // Get the selection clip from the selection manager
+            Graphics2D g2d = canvas.getDrawingGraphics();
+            clip = g2d.getClip();
+            g2d.dispose();
+
+            // Adjust coordinates relative to the selection bounds
+            Rectangle bounds = selection.getBounds();
+            drawPoint = new Point(worldPoint.x - bounds.x, worldPoint.y - bounds.y);
         } else {
             targetImage = canvas.getCurrentLayerImage();
         }
 
         // Lazy initialization of renderer if needed
         if (renderer == null) {
-            renderer = new FilterBrushRenderer(canvas);
+            renderer = new FilterBrushRenderer();
         }
 
-        renderer.applyFilter(
+        FilterBrushRenderer filterRenderer = renderer;
+        FilterType type = filterType;
+        int dabSize = size;
+        float dabStrength = strength;
+        float dabHardness = hardness;
+        FalloffMask.Curve dabFalloff = falloff;
+        Color primary = canvas.getDrawingColor();
+        Color secondary = canvas.getFillColor();
+        Shape dabClip = clip;
+        Point dabPoint = drawPoint;
+        Rectangle dirty = new Rectangle(worldPoint.x - size / 2 - 1, worldPoint.y - size / 2 - 1, size + 2, size + 2);
+        canvas.getStrokeRasterizer().submit(() -> filterRenderer.applyFilter(
                 targetImage,
-                filterType,
-                p.x, p.y, size,
-                strength,
-                g2d.getClip()
-        );
+                type,
+                dabPoint.x, dabPoint.y, dabSize,
+                dabStrength,
+                dabHardness,
+                dabFalloff,
+                primary, secondary,
+                dabClip
+        ), dirty);
     }
 
+    /**
+     * Waits for the queued filter dabs, so the layers are complete once the mouse is released.
+     */
     @Override
     public void mouseReleased(MouseEvent e) {
-        // No action needed for mouse released
+        canvas.getStrokeRasterizer().finish();
     }
 
     @Override
@@ -206,4 +201,20 @@ public class FilterBrushTool implements DrawingTool {
     public void setStrength(float strength) {
         this.strength = Math.max(0.01f, Math.min(1.0f, strength));
     }
+
+    public void setHardness(float hardness) {
+        this.hardness = Math.max(0.0f, Math.min(1.0f, hardness));
+    }
+
+    public float getHardness() {
+        return hardness;
+    }
+
+    public void setFalloff(FalloffMask.Curve falloff) {
+        this.falloff = falloff;
+    }
+
+    public FalloffMask.Curve getFalloff() {
+        return falloff;
+    }
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.esgdev.sparkpaint.engine.tools;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.layer.Layer;
+import com.esgdev.sparkpaint.engine.selection.PathSimplifier;
 import com.esgdev.sparkpaint.engine.selection.Selection;
+import com.esgdev.sparkpaint.engine.selection.SelectionMask;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
@@ -10,10 +12,14 @@ import java.awt.event.MouseWheelEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FreeHandSelectionTool extends AbstractSelectionTool {
+    // Largest deviation, in screen pixels, allowed when the finished lasso is simplified
+    private static final double SIMPLIFY_TOLERANCE = 1.0;
     private final GeneralPath currentPath = new GeneralPath();
+    private final List<Point> pathPoints = new ArrayList<>();
     private boolean isDrawingPath = false;
     private Rectangle selectionBounds = null;
 
@@ -40,13 +46,15 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
     private void startNewPath() {
         currentPath.reset();
         currentPath.moveTo(worldStartPoint.x, worldStartPoint.y);
+        pathPoints.clear();
+        pathPoints.add(worldStartPoint);
         isDrawingPath = true;
         Selection selection = new Selection(currentPath, null);
         canvas.setSelection(selection);
     }
 
     private void startDragging(Selection selection) {
-        isDragging = true;
+        beginSelectionMove();
         isDrawingPath = false;
         Rectangle bounds = selection.getBounds();
         if (originalSelectionLocation == null) {
@@ -63,7 +71,7 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
 
         if (isDrawingPath) {
             isDrawingPath = false;
-            currentPath.closePath();
+            simplifyCurrentPath(selection);
             finalizeSelection(selection);
         } else if (isDragging) {
             finalizeDrag(e, selection);
@@ -83,10 +91,13 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
             return;
         }
 
+        selection.setMask(SelectionMask.fromShape(currentPath));
+
         BufferedImage selectionContent = createSelectionImage();
         BufferedImage transparentContent = createTransparentSelectionImage(selectionContent);
 
         selection.setTransparent(transparencyEnabled);
+        selection.setTransparencyTolerance(transparencyTolerance);
         selection.setContent(transparentContent, canvas.getFillColor());
         originalSelectionLocation = new Point(selectionBounds.x, selectionBounds.y);
 
@@ -116,7 +127,7 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
     }
 
     private void finalizeDrag(MouseEvent e, Selection selection) {
-        isDragging = false;
+        endSelectionMove();
         Point worldEndPoint = DrawingTool.screenToWorld(canvas.getZoomFactor(), e.getPoint());
         if (selection.contains(worldEndPoint)) {
             canvas.setCursor(handCursor);
@@ -135,12 +146,48 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
         }
 
         if (isDrawingPath) {
-            currentPath.lineTo(worldDragPoint.x, worldDragPoint.y);
+            addPathPoint(worldDragPoint, selection);
         } else if (isDragging) {
+            // Repaints only the area the selection moved across
             updatePathLocation(worldDragPoint, selection);
         }
+    }
 
-        canvas.repaint();
+    /**
+     * Appends a point to the lasso and repaints only the new segment.
+     */
+    private void addPathPoint(Point point, Selection selection) {
+        Point last = pathPoints.get(pathPoints.size() - 1);
+        if (last.equals(point)) {
+            return;
+        }
+        pathPoints.add(point);
+        currentPath.lineTo(point.x, point.y);
+        selection.pathEdited();
+
+        Rectangle segment = new Rectangle(last);
+        segment.add(point);
+        canvas.repaintSelectionArea(segment);
+    }
+
+    /**
+     * Rebuilds the lasso from its points with Ramer-Douglas-Peucker simplification and closes it.
+     * The tolerance is a fixed distance on screen, so zoomed-in lassos keep more detail.
+     */
+    private void simplifyCurrentPath(Selection selection) {
+        double tolerance = SIMPLIFY_TOLERANCE / canvas.getZoomFactor();
+        List<Point> simplified = PathSimplifier.simplify(pathPoints, tolerance);
+
+        currentPath.reset();
+        Point first = simplified.get(0);
+        currentPath.moveTo(first.x, first.y);
+        for (int i = 1; i < simplified.size(); i++) {
+            Point point = simplified.get(i);
+            currentPath.lineTo(point.x, point.y);
+        }
+        currentPath.closePath();
+        selection.pathEdited();
+        pathPoints.clear();
     }
 
     private void updatePathLocation(Point worldDragPoint, Selection selection) {
@@ -148,12 +195,9 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
         int dx = worldDragPoint.x - worldStartPoint.x;
         int dy = worldDragPoint.y - worldStartPoint.y;
 
-        // Translate the path
-        GeneralPath path = selection.getPath();
-        if (path != null) {
-            AffineTransform transform = new AffineTransform();
-            transform.translate(dx, dy);
-            path.transform(transform);
+        // Translate the path and mask
+        if (selection.hasOutline()) {
+            moveSelection(selection, dx, dy);
             worldStartPoint = worldDragPoint;
         }
     }
@@ -171,7 +215,7 @@ public class FreeHandSelectionTool extends AbstractSelectionTool {
 
     @Override
     protected void drawSelectionToCanvas(Graphics2D g2d, Selection selection, BufferedImage content) {
-        Rectangle bounds = selection.getPath().getBounds();
+        Rectangle bounds = selection.getBounds();
         g2d.drawImage(content, bounds.x, bounds.y, null);
     }
 }
\ No newline at end of file
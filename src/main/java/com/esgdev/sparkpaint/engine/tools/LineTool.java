@@ -3,6 +3,7 @@ package com.esgdev.sparkpaint.engine.tools;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
 import com.esgdev.sparkpaint.engine.tools.renderers.LineToolRenderer;
+import com.esgdev.sparkpaint.engine.tools.renderers.BulkFill;
 
 import javax.swing.*;
 import java.awt.*;
@@ -16,6 +17,7 @@ public class LineTool implements DrawingTool {
     private final DrawingCanvas canvas;
     private final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     private Point startPoint;
+    private Rectangle previewArea;
     private final List<Point> polylinePoints;
     private float curveTension = 0.5f; // Default tension (0.5 is standard Catmull-Rom)
     private LineMode mode = LineMode.SINGLE_LINE;
@@ -95,6 +97,7 @@ public class LineTool implements DrawingTool {
         if (mode == LineMode.SINGLE_LINE) {
             // Single line mode - save start point
             startPoint = point;
+            previewArea = null;
             canvas.saveToUndoStack();
         } else if (mode == LineMode.POLYLINE ||
                 mode == LineMode.CURVE ||
@@ -145,10 +148,8 @@ public class LineTool implements DrawingTool {
             BufferedImage tempCanvas = canvas.getToolCanvas();
             Graphics2D g2d = tempCanvas.createGraphics();
 
-            // Clear the temp canvas
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-            g2d.setComposite(AlphaComposite.SrcOver);
+            // Clear the previous preview
+            clearPreview(tempCanvas);
 
             applySelectionClip(g2d, selection);
 
@@ -157,7 +158,10 @@ public class LineTool implements DrawingTool {
                     canvas.getDrawingColor(), canvas.getLineThickness());
 
             g2d.dispose();
-            canvas.repaint();
+
+            Rectangle area = DrawingTool.strokeBounds(startPoint, point, canvas.getLineThickness() + 2);
+            canvas.repaintPreviewArea(previewArea != null ? previewArea.union(area) : area);
+            previewArea = area;
         }
     }
 
@@ -170,6 +174,7 @@ public class LineTool implements DrawingTool {
 
             // Get current point in appropriate coordinate system
             Point point = canvas.getDrawingCoordinates(e.getPoint(), canvas.getZoomFactor());
+            Rectangle area = DrawingTool.strokeBounds(startPoint, point, canvas.getLineThickness());
 
             // Determine target image and graphics context
             BufferedImage targetImage;
@@ -226,7 +231,8 @@ public class LineTool implements DrawingTool {
 
             // Clear the temp canvas and repaint
             canvas.setToolCanvas(null);
-            canvas.repaint();
+            canvas.repaintDocumentArea(previewArea != null ? previewArea.union(area) : area);
+            previewArea = null;
         }
     }
 
@@ -271,21 +277,38 @@ public class LineTool implements DrawingTool {
         BufferedImage tempCanvas = canvas.getToolCanvas();
         Graphics2D g2d = tempCanvas.createGraphics();
 
-        // Clear canvas
-        g2d.setComposite(AlphaComposite.Clear);
-        g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-        g2d.setComposite(AlphaComposite.SrcOver);
+        // Clear the previous preview
+        clearPreview(tempCanvas);
 
         // Apply selection clip if needed
         Selection selection = canvas.getSelection();
         applySelectionClip(g2d, selection);
 
         // Delegate to renderer for preview drawing
-        renderer.drawPreview(tempCanvas, mode, polylinePoints, currentPoint,
+        Rectangle bounds = renderer.drawPreview(tempCanvas, mode, polylinePoints, currentPoint,
                 canvas.getDrawingColor(), canvas.getLineThickness());
 
         g2d.dispose();
-        canvas.repaint();
+
+        Rectangle area = DrawingTool.strokeBounds(bounds, previewPadding());
+        canvas.repaintPreviewArea(previewArea != null ? previewArea.union(area) : area);
+        previewArea = area;
+    }
+
+    private void clearPreview(BufferedImage tempCanvas) {
+        if (previewArea != null) {
+            BulkFill.fill(tempCanvas, previewArea, 0);
+        } else {
+            BulkFill.clear(tempCanvas);
+        }
+    }
+
+    // The preview covers the dashed outline of a transparent line and the control point
+    // markers, which keep their screen size at any zoom
+    private float previewPadding() {
+        float thickness = canvas.getLineThickness();
+        float markerSize = Math.max(6, Math.round(thickness) + 2) / canvas.getZoomFactor();
+        return Math.max(thickness + 2, markerSize);
     }
 
     private void finalizeLine() {
@@ -314,6 +337,8 @@ public class LineTool implements DrawingTool {
         if (isClosed && adjustedPoints.size() > 2) {
             adjustedPoints.add(adjustedPoints.get(0));
         }
+        Rectangle area = DrawingTool.strokeBounds(renderer.calculatePathBounds(mode, adjustedPoints),
+                canvas.getLineThickness());
 
         if (selection != null && selection.hasOutline()) {
             g2d = canvas.getDrawingGraphics();
@@ -357,15 +382,17 @@ public class LineTool implements DrawingTool {
         g2d.dispose();
 
         // Reset and clean up
+        canvas.repaintDocumentArea(area);
         resetPoints();
-        canvas.setToolCanvas(null);
-        canvas.repaint();
     }
 
-    // Reset polyline points
+    // Reset polyline points and clear the preview
     private void resetPoints() {
         polylinePoints.clear();
         canvas.setToolCanvas(null);
-        canvas.repaint();
+        if (previewArea != null) {
+            canvas.repaintPreviewArea(previewArea);
+            previewArea = null;
+        }
     }
 }
\ No newline at end of file
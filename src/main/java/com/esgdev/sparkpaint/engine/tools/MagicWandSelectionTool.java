@@ -1,21 +1,24 @@
 package com.esgdev.sparkpaint.engine.tools;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
-import com.esgdev.sparkpaint.engine.layer.Layer;
 import com.esgdev.sparkpaint.engine.selection.Selection;
-import com.esgdev.sparkpaint.engine.tools.renderers.RenderUtils;
+import com.esgdev.sparkpaint.engine.selection.SelectionMask;
+import com.esgdev.sparkpaint.engine.tools.renderers.FloodSpans;
+import com.esgdev.sparkpaint.engine.tools.renderers.ToleranceMap;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.DataBufferInt;
 
 public class MagicWandSelectionTool extends AbstractSelectionTool {
+    private static final int MAX_TOLERANCE = 255;
     private int tolerance = 32;
     Point worldDragOffset;
+    // Join levels for the last click, so tolerance changes can update the selection without a new flood
+    private ToleranceMap toleranceMap;
+    private Selection wandSelection;
 
     public MagicWandSelectionTool(DrawingCanvas canvas) {
         super(canvas);
@@ -40,12 +43,10 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
     }
 
     private void createMagicWandSelection(Point point) {
-        // Create a mask using the smart fill algorithm
-        BufferedImage compositeLayers = createCompositeLayersImage();
-        BufferedImage mask = new BufferedImage(
-                compositeLayers.getWidth(),
-                compositeLayers.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
+        BufferedImage compositeLayers = canvas.getCompositeImage();
+        if (compositeLayers == null) {
+            return;
+        }
 
         // Get target color from composite image
         int x = point.x;
@@ -56,141 +57,63 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
             return;
         }
 
-        Color targetColor = new Color(compositeLayers.getRGB(x, y), true);
-
-        // Create mask with smart fill algorithm
-        RenderUtils.generateSmartFillMask(mask, compositeLayers, x, y, targetColor, tolerance, null);
+        // Compute once per click at which tolerance every pixel joins the region
+        toleranceMap = ToleranceMap.compute(compositeLayers, x, y, MAX_TOLERANCE, null);
+        wandSelection = null;
 
-        // Convert mask to selection path
-        GeneralPath selectionPath = createPathFromMask(mask);
-
-        if (selectionPath != null) {
-            Selection selection = new Selection(selectionPath, null);
+        Selection selection = createSelectionFromMap();
+        if (selection != null) {
             canvas.setSelection(selection);
             finalizeSelection(selection);
+            wandSelection = canvas.getSelection() == selection && selection.hasOutline() ? selection : null;
         }
     }
 
-    private BufferedImage createCompositeLayersImage() {
-        // Get canvas dimensions
-        int width = canvas.getWidth();
-        int height = canvas.getHeight();
-
-        // Create composite image
-        BufferedImage composite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = composite.createGraphics();
-
-        // Draw all visible layers
-        List<Layer> layers = canvas.getLayers();
-        for (Layer layer : layers) {
-            if (layer.isVisible()) {
-                g2d.drawImage(layer.getImage(), 0, 0, null);
-            }
-        }
-
-        g2d.dispose();
-        return composite;
-    }
-
-    private GeneralPath createPathFromMask(BufferedImage mask) {
-        // Find the contour of the mask
-        List<Point> contourPoints = traceContour(mask);
-
-        if (contourPoints.isEmpty()) {
+    /**
+     * Thresholds the tolerance map at the current tolerance and uses the region as the selection mask.
+     */
+    private Selection createSelectionFromMap() {
+        FloodSpans region = toleranceMap.regionAt(tolerance);
+        if (region.isEmpty()) {
             return null;
         }
 
-        // Create path from contour points
-        GeneralPath path = new GeneralPath();
-        Point first = contourPoints.get(0);
-        path.moveTo(first.x, first.y);
-
-        for (int i = 1; i < contourPoints.size(); i++) {
-            Point p = contourPoints.get(i);
-            path.lineTo(p.x, p.y);
-        }
-
-        path.closePath();
-        return path;
+        SelectionMask mask = new SelectionMask(region.getBounds());
+        region.forEachSpan(mask::setSpan);
+        return new Selection(mask, null);
     }
 
-    private List<Point> traceContour(BufferedImage mask) {
-        List<Point> contourPoints = new ArrayList<>();
-        int width = mask.getWidth();
-        int height = mask.getHeight();
-
-        // Find the first non-transparent pixel (starting point)
-        Point start = null;
-        for (int y = 0; y < height && start == null; y++) {
-            for (int x = 0; x < width; x++) {
-                if ((mask.getRGB(x, y) & 0xFF000000) != 0) {
-                    start = new Point(x, y);
-                    break;
-                }
-            }
+    /**
+     * Replaces the last wand selection with the region at the current tolerance,
+     * as long as that selection is still untouched.
+     */
+    private void updateSelectionForTolerance() {
+        if (toleranceMap == null || wandSelection == null) {
+            return;
         }
-
-        if (start == null) {
-            return contourPoints; // Empty mask
+        Selection current = canvas.getSelection();
+        if (current != wandSelection || !current.hasOutline() || current.isActive() || current.isModified()) {
+            toleranceMap = null;
+            wandSelection = null;
+            return;
         }
 
-        // Directions for 8-connected neighbors (clockwise from right)
-        int[][] directions = {
-            {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
-        };
-
-        Point current = start;
-        int dir = 0; // Start by looking right
-
-        do {
-            contourPoints.add(new Point(current.x, current.y));
-
-            // Look for next contour point
-            boolean found = false;
-            for (int i = 0; i < 8; i++) {
-                int nextDir = (dir + i) % 8;
-                int nx = current.x + directions[nextDir][0];
-                int ny = current.y + directions[nextDir][1];
-
-                // Check if in bounds
-                if (nx >= 0 && nx < width && ny >= 0 && ny < height) {
-                    // Check if it's a filled pixel
-                    if ((mask.getRGB(nx, ny) & 0xFF000000) != 0) {
-                        current = new Point(nx, ny);
-                        dir = (nextDir + 6) % 8; // Start looking 90° counter-clockwise
-                        found = true;
-                        break;
-                    }
-                }
-            }
-
-            if (!found) break;
-
-            // Prevent infinite loops with a reasonable limit
-            if (contourPoints.size() > width * height) break;
-
-        } while (!current.equals(start) && !contourPoints.isEmpty());
-
-        // Simplify the path by removing some points
-        return simplifyPath(contourPoints);
-    }
-
-    private List<Point> simplifyPath(List<Point> points) {
-        // Simple point reduction - keep only every N points
-        if (points.size() <= 100) return points;
-
-        List<Point> simplified = new ArrayList<>();
-        int step = points.size() / 100;
-
-        for (int i = 0; i < points.size(); i += step) {
-            simplified.add(points.get(i));
+        // Keep the previous selection rather than dropping it when the region becomes too small
+        Selection selection = createSelectionFromMap();
+        if (selection == null || isSelectionTooSmall(selection.getBounds())) {
+            return;
         }
-
-        return simplified;
+        canvas.setSelection(selection);
+        finalizeSelection(selection);
+        wandSelection = canvas.getSelection() == selection && selection.hasOutline() ? selection : null;
+        canvas.repaint();
     }
 
     private void startDragging(Selection selection) {
-        isDragging = true;
+        beginSelectionMove();
+        // A moved selection no longer matches the tolerance map
+        toleranceMap = null;
+        wandSelection = null;
         Rectangle bounds = selection.getBounds();
         worldDragOffset = new Point(
                 worldStartPoint.x - bounds.x,
@@ -216,35 +139,49 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
             return;
         }
 
-        BufferedImage selectionContent = createSelectionImage(bounds);
-        BufferedImage transparentContent = createTransparentSelectionImage(selectionContent);
+        SelectionMask mask = selection.getMask() != null ? selection.getMask() : SelectionMask.fromShape(selection.getPath());
+        BufferedImage selectionContent = createSelectionImage(mask, bounds);
 
         selection.setTransparent(transparencyEnabled);
-        selection.setContent(transparentContent, canvas.getFillColor());
+        selection.setTransparencyTolerance(transparencyTolerance);
+        selection.setContent(selectionContent, canvas.getFillColor());
         originalSelectionLocation = new Point(bounds.x, bounds.y);
 
         canvas.notifyClipboardStateChanged();
     }
 
-    private BufferedImage createSelectionImage(Rectangle bounds) {
+    /**
+     * Copies the selected pixels from the same composite the selection was sampled from, one run
+     * of the mask at a time, straight into the raster of the new content. This keeps tolerance
+     * changes cheap, as no outline has to be traced or used as a clip.
+     */
+    private BufferedImage createSelectionImage(SelectionMask mask, Rectangle bounds) {
         BufferedImage selectionContent = new BufferedImage(
                 bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = selectionContent.createGraphics();
-
-        // Get the selection path and translate it to image coordinates
-        GeneralPath path = new GeneralPath(canvas.getSelection().getPath());
-        path.transform(java.awt.geom.AffineTransform.getTranslateInstance(-bounds.x, -bounds.y));
-        g2d.setClip(path);
-
-        // Draw all visible layers
-        List<Layer> layers = canvas.getLayers();
-        for (Layer layer : layers) {
-            if (layer.isVisible()) {
-                g2d.drawImage(layer.getImage(), -bounds.x, -bounds.y, null);
+        BufferedImage composite = canvas.getCompositeImage();
+        if (composite == null) {
+            return selectionContent;
+        }
+
+        int[] pixels = ((DataBufferInt) selectionContent.getRaster().getDataBuffer()).getData();
+        Rectangle area = bounds.intersection(new Rectangle(0, 0, composite.getWidth(), composite.getHeight()));
+        for (int py = area.y; py < area.y + area.height; py++) {
+            int px = area.x;
+            int end = area.x + area.width;
+            while (px < end) {
+                while (px < end && !mask.contains(px, py)) {
+                    px++;
+                }
+                int start = px;
+                while (px < end && mask.contains(px, py)) {
+                    px++;
+                }
+                if (start < px) {
+                    composite.getRGB(start, py, px - start, 1, pixels,
+                            (py - bounds.y) * bounds.width + start - bounds.x, bounds.width);
+                }
             }
         }
-
-        g2d.dispose();
         return selectionContent;
     }
 
@@ -260,17 +197,12 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
         // Update the position of the selection
         int newX = worldDragPoint.x - worldDragOffset.x;
         int newY = worldDragPoint.y - worldDragOffset.y;
-        GeneralPath path = selection.getPath();
-        Rectangle bounds = path.getBounds();
+        Rectangle bounds = selection.getBounds();
         int deltaX = newX - bounds.x;
         int deltaY = newY - bounds.y;
 
-        if (deltaX != 0 || deltaY != 0) {
-            java.awt.geom.AffineTransform transform =
-                java.awt.geom.AffineTransform.getTranslateInstance(deltaX, deltaY);
-            path.transform(transform);
-            canvas.repaint();
-        }
+        // Repaints only the area the selection moved across
+        moveSelection(selection, deltaX, deltaY);
     }
 
     @Override
@@ -281,7 +213,7 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
         }
 
         if (isDragging) {
-            isDragging = false;
+            endSelectionMove();
             Point worldPoint = DrawingTool.screenToWorld(canvas.getZoomFactor(), e.getPoint());
             if (selection.contains(worldPoint)) {
                 canvas.setCursor(handCursor);
@@ -303,8 +235,17 @@ public class MagicWandSelectionTool extends AbstractSelectionTool {
         return "Magic Wand selection tool: Click to select similar colors";
     }
 
+    /**
+     * Sets the color tolerance. If the last wand selection is still untouched, it is updated
+     * right away by thresholding the tolerance map of that click.
+     */
     public void setTolerance(int tolerance) {
-        this.tolerance = Math.max(0, Math.min(255, tolerance));
+        int clamped = Math.max(0, Math.min(MAX_TOLERANCE, tolerance));
+        if (clamped == this.tolerance) {
+            return;
+        }
+        this.tolerance = clamped;
+        updateSelectionForTolerance();
     }
 
     public int getTolerance() {
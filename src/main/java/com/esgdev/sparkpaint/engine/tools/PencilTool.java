@@ -52,7 +52,7 @@ public class PencilTool implements DrawingTool {
         DrawContext drawContext = prepareDrawContext(selection, lastPoint);
         renderer.drawPoint(drawContext.targetImage, drawContext.adjustedPoint,
                 getDrawingColor(e), canvas.getLineThickness());
-        canvas.repaint();
+        canvas.repaintDocumentArea(DrawingTool.strokeBounds(lastPoint, lastPoint, canvas.getLineThickness()));
     }
 
     @Override
@@ -83,9 +83,9 @@ public class PencilTool implements DrawingTool {
         renderer.drawLine(drawContext.targetImage, drawContext.adjustedStart,
                 drawContext.adjustedEnd, getDrawingColor(e), canvas.getLineThickness());
 
-        // Update last point and repaint
+        // Repaint only the new segment, then update last point
+        canvas.repaintDocumentArea(DrawingTool.strokeBounds(lastPoint, currentPoint, canvas.getLineThickness()));
         lastPoint = currentPoint;
-        canvas.repaint();
     }
 
     @Override
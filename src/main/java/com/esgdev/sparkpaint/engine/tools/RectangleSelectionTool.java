@@ -3,11 +3,11 @@ package com.esgdev.sparkpaint.engine.tools;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.layer.Layer;
 import com.esgdev.sparkpaint.engine.selection.Selection;
+import com.esgdev.sparkpaint.engine.selection.SelectionMask;
 
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
 import java.util.List;
@@ -63,13 +63,13 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
         if (selectionRectangle == null) return;
 
         if (isDragging) {
+            // Repaints only the area the selection moved across
             updateRectangleLocation(worldDragPoint, selection);
         } else {
             // size the rectangle
             updateRectangleSize(worldDragPoint, selection);
+            canvas.repaint();
         }
-
-        canvas.repaint();
     }
 
     @Override
@@ -121,12 +121,14 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
         }
 
         canvas.notifyClipboardStateChanged();
+        selection.setMask(SelectionMask.fromRectangle(selectionRectangle));
 
         if (selectionRectangle.width > 0 && selectionRectangle.height > 0) {
             BufferedImage selectionContent = createSelectionImage(selectionRectangle);
             BufferedImage transparentContent = createTransparentSelectionImage(selectionContent);
 
             selection.setTransparent(transparencyEnabled);
+            selection.setTransparencyTolerance(transparencyTolerance);
             selection.setContent(transparentContent, canvas.getFillColor());
             originalSelectionLocation = new Point(selectionRectangle.x, selectionRectangle.y);
         } else {
@@ -161,12 +163,8 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
     private void updateRectangleLocation(Point worldDragPoint, Selection selection) {
         int newX = worldDragPoint.x - worldDragOffset.x;
         int newY = worldDragPoint.y - worldDragOffset.y;
-        GeneralPath path = selection.getPath();
-        Rectangle bounds = path.getBounds();
-        int deltaX = newX - bounds.x;
-        int deltaY = newY - bounds.y;
-        AffineTransform transform = AffineTransform.getTranslateInstance(deltaX, deltaY);
-        path.transform(transform);
+        Rectangle bounds = selection.getBounds();
+        moveSelection(selection, newX - bounds.x, newY - bounds.y);
     }
 
     private void updateRectangleSize(Point worldDragPoint, Selection selection) {
@@ -178,6 +176,7 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
         GeneralPath path = selection.getPath();
         path.reset();
         path.append(rect, false);
+        selection.pathEdited();
     }
 
 
@@ -189,7 +188,7 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
     }
 
     private void startDragging(Selection selection) {
-        isDragging = true;
+        beginSelectionMove();
         Rectangle selectionRectangle = selection.getBounds();
         worldDragOffset = new Point(
                 worldStartPoint.x - selectionRectangle.x,
@@ -202,7 +201,7 @@ public class RectangleSelectionTool extends AbstractSelectionTool {
     }
 
     private void finalizeDrag(Point worldEndPoint, Selection selection) {
-        isDragging = false;
+        endSelectionMove();
         if (selection.contains(worldEndPoint)) {
             canvas.setCursor(handCursor);
         } else {
@@ -0,0 +1,90 @@
+package com.esgdev.sparkpaint.engine.tools;
+
+import java.util.Arrays;
+
+/**
+ * Places dabs at a fixed spacing along a stroke, however far apart the mouse events are.
+ * Positions are kept at sub-pixel precision, and the distance left over after the last dab
+ * carries into the next segment, so spacing stays even across events. The dab positions of
+ * a segment are written into a buffer that is reused from one event to the next.
+ */
+public class StrokeInterpolator {
+    private double lastX;
+    private double lastY;
+    // Distance travelled since the last dab
+    private double travelled;
+    private double[] dabs = new double[32];
+    private int dabCount;
+
+    /**
+     * Starts a new stroke with a single dab at the given position.
+     */
+    public void begin(double x, double y) {
+        lastX = x;
+        lastY = y;
+        travelled = 0;
+        dabCount = 0;
+        addDab(x, y);
+    }
+
+    /**
+     * Continues the stroke to the given position and computes the dabs along the way.
+     *
+     * @param x       the new position
+     * @param y       the new position
+     * @param spacing the distance between dabs in pixels, at least one
+     * @return the number of dabs placed on this segment, which may be zero
+     */
+    public int moveTo(double x, double y, double spacing) {
+        dabCount = 0;
+        double step = Math.max(1.0, spacing);
+        double dx = x - lastX;
+        double dy = y - lastY;
+        double length = Math.sqrt(dx * dx + dy * dy);
+
+        if (length > 0) {
+            // The first dab comes where the spacing left over from the previous segment runs out
+            double distance = step - travelled;
+            while (distance <= length) {
+                double t = distance / length;
+                addDab(lastX + dx * t, lastY + dy * t);
+                distance += step;
+            }
+            travelled = length - (distance - step);
+        }
+
+        lastX = x;
+        lastY = y;
+        return dabCount;
+    }
+
+    /**
+     * Returns the x position of a dab placed by the last call to begin or moveTo.
+     */
+    public double getX(int index) {
+        return dabs[index * 2];
+    }
+
+    /**
+     * Returns the y position of a dab placed by the last call to begin or moveTo.
+     */
+    public double getY(int index) {
+        return dabs[index * 2 + 1];
+    }
+
+    /**
+     * Returns the number of dabs placed by the last call to begin or moveTo.
+     */
+    public int getDabCount() {
+        return dabCount;
+    }
+
+    private void addDab(double x, double y) {
+        if (dabCount * 2 + 2 > dabs.length) {
+            dabs = Arrays.copyOf(dabs, dabs.length * 2);
+        }
+        dabs[dabCount * 2] = x;
+        dabs[dabCount * 2 + 1] = y;
+        dabCount++;
+    }
+}
@@ -0,0 +1,137 @@
+package com.esgdev.sparkpaint.engine.tools;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs the pixel work of painting tools on a background thread, so the event dispatch thread
+ * only records input and never waits for a brush. Tools queue one job per mouse event together
+ * with the area it will change; the rasterizer runs the jobs in order and reports the changed
+ * areas back on the event dispatch thread, merged into a single rectangle per update.
+ */
+public class StrokeRasterizer {
+    // How often a waiting finish checks that the worker is still alive
+    private static final long FINISH_CHECK_MS = 250;
+
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Rectangle> pendingDirty = new AtomicReference<>();
+    private final Consumer<Rectangle> dirtyListener;
+    private volatile Thread worker;
+
+    /**
+     * @param dirtyListener called on the event dispatch thread with the area changed by finished jobs
+     */
+    public StrokeRasterizer(Consumer<Rectangle> dirtyListener) {
+        this.dirtyListener = dirtyListener;
+    }
+
+    /**
+     * Queues a job to run after all jobs queued before it.
+     *
+     * @param job   the pixel work
+     * @param dirty the area the job changes, in world coordinates, or null if it changes nothing visible
+     */
+    public void submit(Runnable job, Rectangle dirty) {
+        queue.offer(() -> {
+            job.run();
+            if (dirty != null) {
+                publish(dirty);
+            }
+        });
+        LockSupport.unpark(startWorker());
+    }
+
+    /**
+     * Blocks until every queued job has run. Called before anything that reads the layers
+     * outside the rasterizer, such as saving an undo state.
+     */
+    public void finish() {
+        Thread thread = worker;
+        if (thread == null || Thread.currentThread() == thread) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        queue.offer(done::countDown);
+        LockSupport.unpark(thread);
+        try {
+            while (!done.await(FINISH_CHECK_MS, TimeUnit.MILLISECONDS)) {
+                // A worker that died leaves its jobs queued; a new one picks them up
+                if (!thread.isAlive()) {
+                    thread = startWorker();
+                    LockSupport.unpark(thread);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Thread startWorker() {
+        Thread thread = worker;
+        if (thread == null) {
+            synchronized (this) {
+                thread = worker;
+                if (thread == null) {
+                    thread = new Thread(this::run, "Stroke rasterizer");
+                    thread.setDaemon(true);
+                    worker = thread;
+                    thread.start();
+                }
+            }
+        }
+        return thread;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Runnable job = queue.poll();
+                if (job == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    job.run();
+                } catch (Throwable e) {
+                    // Errors such as running out of memory on a huge stroke lose the job, not the thread
+                    System.err.println("Error while painting: " + e);
+                }
+            }
+        } finally {
+            // Should the thread end anyway, the next submit or finish starts a new one
+            synchronized (this) {
+                if (worker == Thread.currentThread()) {
+                    worker = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the area into the pending update and schedules one on the event dispatch thread
+     * if none is waiting.
+     */
+    private void publish(Rectangle dirty) {
+        Rectangle previous;
+        Rectangle merged;
+        do {
+            previous = pendingDirty.get();
+            merged = previous == null ? new Rectangle(dirty) : previous.union(dirty);
+        } while (!pendingDirty.compareAndSet(previous, merged));
+
+        if (previous == null) {
+            SwingUtilities.invokeLater(() -> {
+                Rectangle area = pendingDirty.getAndSet(null);
+                if (area != null) {
+                    dirtyListener.accept(area);
+                }
+            });
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.esgdev.sparkpaint.engine.tools;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
 import com.esgdev.sparkpaint.engine.tools.renderers.TextToolRenderer;
+import com.esgdev.sparkpaint.engine.tools.renderers.BulkFill;
 import com.esgdev.sparkpaint.ui.ToolChangeListener;
 
 import java.awt.*;
@@ -16,6 +17,7 @@ public class TextTool implements DrawingTool, ToolChangeListener {
     private String text = "Sample Text";
     private Font font = new Font("Arial", Font.PLAIN, 24);
     private Point previewPoint = null;
+    private Rectangle previewArea;
 
     // Add TextToolRenderer field
     private final TextToolRenderer renderer;
@@ -81,7 +83,7 @@ public class TextTool implements DrawingTool, ToolChangeListener {
 
         // Clear preview
         clearPreview();
-        canvas.repaint();
+        canvas.repaintDocumentArea(renderer.calculateTextBounds(drawPoint, text, font));
     }
 
     // Helper class for drawing context
@@ -125,11 +127,12 @@ public class TextTool implements DrawingTool, ToolChangeListener {
         BufferedImage tempCanvas = canvas.getToolCanvas();
         Graphics2D g2d = tempCanvas.createGraphics();
 
-        // Clear the temp canvas
-        g2d.setComposite(AlphaComposite.Clear);
-        g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-        g2d.setComposite(AlphaComposite.SrcOver);
-
+        // Clear the previous preview
+        if (previewArea != null) {
+            BulkFill.fill(tempCanvas, previewArea, 0);
+        } else {
+            BulkFill.clear(tempCanvas);
+        }
 
         // Apply selection clip if needed
         Selection selection = canvas.getSelection();
@@ -147,18 +150,19 @@ public class TextTool implements DrawingTool, ToolChangeListener {
                 canvas.getDrawingColor(), true);
 
         g2d.dispose();
-        canvas.repaint();
+
+        Rectangle area = renderer.calculateTextBounds(adjustedPoint, text, font);
+        canvas.repaintPreviewArea(previewArea != null ? previewArea.union(area) : area);
+        previewArea = area;
     }
 
     private void clearPreview() {
         previewPoint = null;
         BufferedImage tempCanvas = canvas.getToolCanvas();
-        if (tempCanvas != null) {
-            Graphics2D g2d = tempCanvas.createGraphics();
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-            g2d.dispose();
-            canvas.repaint();
+        if (tempCanvas != null && previewArea != null) {
+            BulkFill.fill(tempCanvas, previewArea, 0);
+            canvas.repaintPreviewArea(previewArea);
+            previewArea = null;
         }
     }
 
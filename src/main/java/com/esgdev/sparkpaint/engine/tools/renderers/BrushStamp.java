@@ -0,0 +1,81 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The coverage of a single brush dab, a byte of alpha per pixel. Stamps depend only on the
+ * shape, size and antialiasing of the brush, so they are rasterized once and kept in a small
+ * least-recently-used cache shared by all renderers.
+ */
+public final class BrushStamp {
+    private static final int CACHE_SIZE = 32;
+
+    private static final Map<Long, BrushStamp> cache = new LinkedHashMap<Long, BrushStamp>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BrushStamp> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final int size;
+    private final byte[] coverage;
+
+    private BrushStamp(int size, byte[] coverage) {
+        this.size = size;
+        this.coverage = coverage;
+    }
+
+    /**
+     * Returns the stamp for a square or round brush of the given size, rasterizing it on first use.
+     *
+     * @param square      true for a square brush, false for a round one
+     * @param size        the width and height of the brush in pixels
+     * @param antiAliased whether the edge of a round brush gets partial coverage
+     * @return the shared stamp, which must not be modified
+     */
+    public static BrushStamp get(boolean square, int size, boolean antiAliased) {
+        int clampedSize = Math.max(1, size);
+        long key = ((long) clampedSize << 2) | (square ? 2 : 0) | (antiAliased ? 1 : 0);
+        synchronized (cache) {
+            BrushStamp stamp = cache.get(key);
+            if (stamp == null) {
+                stamp = rasterize(square, clampedSize, antiAliased);
+                cache.put(key, stamp);
+            }
+            return stamp;
+        }
+    }
+
+    private static BrushStamp rasterize(boolean square, int size, boolean antiAliased) {
+        BufferedImage mask = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = mask.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                antiAliased ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2d.setColor(Color.WHITE);
+        if (square) {
+            g2d.fillRect(0, 0, size, size);
+        } else {
+            g2d.fillOval(0, 0, size, size);
+        }
+        g2d.dispose();
+        return new BrushStamp(size, ((DataBufferByte) mask.getRaster().getDataBuffer()).getData());
+    }
+
+    /**
+     * Returns the width and height of the stamp.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the coverage at stamp coordinates (x, y), from 0 for none to 255 for full.
+     */
+    public int coverageAt(int x, int y) {
+        return coverage[y * size + x] & 0xFF;
+    }
+}
@@ -5,14 +5,18 @@ import com.esgdev.sparkpaint.engine.tools.BrushTool;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * BrushToolRenderer handles the actual implementation of various brush rendering styles
- * used by the BrushTool.
+ * used by the BrushTool. Square and circle dabs are collected in a per-stroke buffer, so
+ * callers composite the stroke after each event and end it when the mouse is released.
  */
 public class BrushToolRenderer extends BaseRenderer {
-    private final Random random = new Random();
+    private SplittableRandom random = new SplittableRandom();
+    // Droplet positions of the current spray dab, reused between dabs
+    private int[] droplets = new int[0];
+    private final StrokeBuffer strokeBuffer = new StrokeBuffer();
     private static final int SPRAY_REFERENCE_SIZE = 5;
 
     public BrushToolRenderer() {
@@ -54,10 +58,10 @@ public class BrushToolRenderer extends BaseRenderer {
         // Apply the brush shape at the specified location
         switch (brushShape) {
             case SQUARE:
-                drawBlendedShape(targetImage, x - size / 2, y - size / 2, size, size, paintColor, blendStrength, clip, true);
+                drawBlendedShape(targetImage, x - size / 2, y - size / 2, size, paintColor, blendStrength, clip, true);
                 break;
             case CIRCLE:
-                drawBlendedShape(targetImage, x - size / 2, y - size / 2, size, size, paintColor, blendStrength, clip, false);
+                drawBlendedShape(targetImage, x - size / 2, y - size / 2, size, paintColor, blendStrength, clip, false);
                 break;
             case SPRAY:
                 sprayPaint(targetImage, x, y, size, paintColor, sprayDensity, blendStrength, clip);
@@ -66,157 +70,135 @@ public class BrushToolRenderer extends BaseRenderer {
     }
 
     /**
-     * Draws a blended shape (square or circle) on the target image.
+     * Restarts the random source, so a stroke painted again with the same seed and input
+     * sprays exactly the same droplets.
      */
-    private void drawBlendedShape(BufferedImage image, int x, int y, int width, int height,
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Ends the current stroke, blending any dabs not yet on the target image.
+     */
+    public void endStroke() {
+        strokeBuffer.end();
+    }
+
+    /**
+     * Blends the dabs added since the last call onto the target image. Painting tools call this
+     * once per event, after all dabs of the event are drawn.
+     */
+    public void compositeStroke() {
+        strokeBuffer.composite();
+    }
+
+    /**
+     * Adds a square or circle stamp to the stroke buffer. Only the pixels under the stamp are
+     * touched, and the stroke is blended onto the image by {@link #compositeStroke()}.
+     */
+    private void drawBlendedShape(BufferedImage image, int x, int y, int size,
                                   Color paintColor, float blendStrength,
                                   Shape clip, boolean isSquare) {
-        // Create a temporary image for the shape
-        BufferedImage tempImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D tempG2d = tempImage.createGraphics();
-        tempG2d.setColor(paintColor);
-        configureGraphics(tempG2d);
-
-        // Draw the shape to the temporary image
-        if (isSquare) {
-            tempG2d.fillRect(x, y, width, height);
-        } else {
-            tempG2d.fillOval(x, y, width, height);
+        if (!strokeBuffer.isActiveFor(image, paintColor, blendStrength)) {
+            strokeBuffer.end();
+            strokeBuffer.begin(image, paintColor, blendStrength);
         }
-        tempG2d.dispose();
-
-        // Apply blending to the main image
-        int startX = Math.max(0, x);
-        int startY = Math.max(0, y);
-        int endX = Math.min(image.getWidth(), x + width);
-        int endY = Math.min(image.getHeight(), y + height);
-
-        for (int i = startX; i < endX; i++) {
-            for (int j = startY; j < endY; j++) {
-                int tempRGB = tempImage.getRGB(i, j);
-                // Only process non-transparent pixels from the shape
-                if ((tempRGB & 0xFF000000) != 0) {
-                    // Check if this pixel is within the clipping region
-                    if (clip == null || clip.contains(i, j)) {
-                        int currentRGB = image.getRGB(i, j);
-                        Color blendedColor = RenderUtils.getBlendedColor(currentRGB, blendStrength, paintColor);
-                        image.setRGB(i, j, blendedColor.getRGB());
-                    }
-                }
-            }
+
+        Rectangle dab = new Rectangle(x, y, Math.max(1, size), Math.max(1, size))
+                .intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (dab.isEmpty() || (clip != null && !clip.intersects(dab))) {
+            return;
         }
+
+        BrushStamp stamp = BrushStamp.get(isSquare, size, useAntiAliasing);
+        // Only rasterize the clip when it cuts through the dab
+        BulkFill.Coverage clipCoverage = clip != null && !clip.contains(dab) ? BulkFill.rasterize(clip, dab) : null;
+        strokeBuffer.addStamp(stamp, x, y, dab, clipCoverage);
     }
 
     /**
-     * Handles painting with transparency - this erases content by setting pixels to transparent
+     * Handles painting with transparency - this erases content by lowering the alpha of the
+     * pixels under the brush by the blend strength.
      */
     private void handleTransparentPainting(BufferedImage targetImage, BrushTool.BrushShape shape,
                                            int x, int y, int size, int sprayDensity,
                                            float alphaStrength, Shape clip) {
-        // Create a mask image for the alpha feathering
-        BufferedImage maskImage = createMask(targetImage.getWidth(), targetImage.getHeight(), clip);
-        Graphics2D maskG2d = maskImage.createGraphics();
-        configureGraphics(maskG2d, Color.WHITE, 1.0f);
-
         int topLeftX = x - size / 2;
         int topLeftY = y - size / 2;
-
-        // Draw the shape to the mask
-        switch (shape) {
-            case SQUARE:
-                maskG2d.fillRect(topLeftX, topLeftY, size, size);
-                break;
-            case CIRCLE:
-                maskG2d.fillOval(topLeftX, topLeftY, size, size);
-                break;
-            case SPRAY:
-                // For spray, do individual feathered dots
-                int radius = size / 2;
-                double area = Math.PI * radius * radius;
-                int effectiveDensity = (int) (sprayDensity * (area / (Math.PI * SPRAY_REFERENCE_SIZE * SPRAY_REFERENCE_SIZE)));
-
-                for (int i = 0; i < effectiveDensity; i++) {
-                    double x_offset = (random.nextDouble() * 2 - 1) * radius;
-                    double y_offset = (random.nextDouble() * 2 - 1) * radius;
-
-                    if (x_offset * x_offset + y_offset * y_offset > radius * radius) {
-                        continue;
-                    }
-
-                    int px = x + (int) x_offset;
-                    int py = y + (int) y_offset;
-
-                    if (px >= 0 && px < targetImage.getWidth() && py >= 0 && py < targetImage.getHeight()) {
-                        // Check if this point is within the clipping region
-                        if (clip == null || clip.contains(px, py)) {
-                            // Draw a small dot
-                            maskG2d.fillOval(px - 1, py - 1, 3, 3);
-                        }
-                    }
-                }
-                break;
-        }
-        maskG2d.dispose();
-
-        // Apply alpha feathering based on the mask
-        int startX = Math.max(0, topLeftX);
-        int startY = Math.max(0, topLeftY);
-        int endX = Math.min(targetImage.getWidth(), topLeftX + size + 1);
-        int endY = Math.min(targetImage.getHeight(), topLeftY + size + 1);
-
-        for (int i = startX; i < endX; i++) {
-            for (int j = startY; j < endY; j++) {
-                int maskRGB = maskImage.getRGB(i, j);
-                // Only process visible pixels from the mask
-                if ((maskRGB & 0xFF000000) != 0) {
-                    // Check if this pixel is within the clipping region
-                    if (clip == null || clip.contains(i, j)) {
-                        // Get current pixel
-                        int currentRGB = targetImage.getRGB(i, j);
-
-                        // Extract current alpha value
-                        int alpha = (currentRGB >> 24) & 0xFF;
-
-                        // Calculate new alpha based on blend strength
-                        int newAlpha = Math.max(0, (int) (alpha * (1.0f - alphaStrength)));
-
-                        // Apply new alpha, keeping RGB components the same
-                        int newRGB = (currentRGB & 0x00FFFFFF) | (newAlpha << 24);
-                        targetImage.setRGB(i, j, newRGB);
+        // Spray dots reach a pixel past the brush circle
+        Rectangle area = new Rectangle(topLeftX - 2, topLeftY - 2, size + 4, size + 4);
+
+        EraseCompositor.erase(targetImage, area, clip, useAntiAliasing, alphaStrength, g2d -> {
+            switch (shape) {
+                case SQUARE:
+                    g2d.fillRect(topLeftX, topLeftY, size, size);
+                    break;
+                case CIRCLE:
+                    g2d.fillOval(topLeftX, topLeftY, size, size);
+                    break;
+                case SPRAY:
+                    // For spray, do individual feathered dots
+                    int count = scatterDroplets(x, y, size, sprayDensity);
+                    for (int i = 0; i < count; i++) {
+                        g2d.fillOval(droplets[i * 2] - 1, droplets[i * 2 + 1] - 1, 3, 3);
                     }
-                }
+                    break;
             }
-        }
+        });
     }
 
     /**
-     * Paints using a spray effect at the specified point.
+     * Paints using a spray effect at the specified point. Droplets come from the shared
+     * spray pattern and are blended straight into the image with a random strength each.
      */
     private void sprayPaint(BufferedImage image, int centerX, int centerY, int size,
                             Color paintColor, int sprayDensity, float blendStrength, Shape clip) {
         int radius = size / 2;
-        double area = Math.PI * radius * radius;
-        int effectiveDensity = (int) (sprayDensity * (area / (Math.PI * SPRAY_REFERENCE_SIZE * SPRAY_REFERENCE_SIZE)));
-
-        for (int i = 0; i < effectiveDensity; i++) {
-            double x_offset = (random.nextDouble() * 2 - 1) * radius;
-            double y_offset = (random.nextDouble() * 2 - 1) * radius;
-
-            if (x_offset * x_offset + y_offset * y_offset > radius * radius) {
+        Rectangle area = new Rectangle(centerX - radius, centerY - radius, 2 * radius + 1, 2 * radius + 1)
+                .intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (area.isEmpty() || (clip != null && !clip.intersects(area))) {
+            return;
+        }
+        // Only rasterize the clip when it cuts through the spray
+        BulkFill.Coverage clipCoverage = clip != null && !clip.contains(area) ? BulkFill.rasterize(clip, area) : null;
+
+        int count = scatterDroplets(centerX, centerY, size, sprayDensity);
+        int paint = paintColor.getRGB();
+        int maxWeight = RenderUtils.toWeight(blendStrength);
+        PixelAccess pixels = PixelAccess.of(image);
+
+        for (int i = 0; i < count; i++) {
+            int x = droplets[i * 2];
+            int y = droplets[i * 2 + 1];
+            if (!area.contains(x, y) || (clipCoverage != null && !clipCoverage.contains(x, y))) {
                 continue;
             }
 
-            int x = centerX + (int) x_offset;
-            int y = centerY + (int) y_offset;
-
-            if (x >= 0 && x < image.getWidth() && y >= 0 && y < image.getHeight()) {
-                // Check if this point is within the clipping region
-                if (clip == null || clip.contains(x, y)) {
-                    int currentRGB = image.getRGB(x, y);
-                    Color blendedColor = RenderUtils.getBlendedColor(currentRGB, random.nextFloat() * blendStrength, paintColor);
-                    image.setRGB(x, y, blendedColor.getRGB());
-                }
+            int weight = random.nextInt(maxWeight + 1);
+            if (pixels != null) {
+                int index = pixels.index(x, y);
+                pixels.data[index] = RenderUtils.blend(pixels.data[index], paint, weight);
+            } else {
+                image.setRGB(x, y, RenderUtils.blend(image.getRGB(x, y), paint, weight));
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Places the droplets of one spray dab in the droplet buffer. The count keeps the density
+     * of the original spray, which tried density attempts per reference area and kept those
+     * that fell inside the circle.
+     *
+     * @return the number of droplets placed
+     */
+    private int scatterDroplets(int centerX, int centerY, int size, int sprayDensity) {
+        int radius = size / 2;
+        double area = Math.PI * radius * radius;
+        int effectiveDensity = (int) (sprayDensity * (area / (Math.PI * SPRAY_REFERENCE_SIZE * SPRAY_REFERENCE_SIZE)));
+        int count = Math.min(SprayPattern.DROPLETS, (int) Math.round(effectiveDensity * Math.PI / 4));
+        if (droplets.length < count * 2) {
+            droplets = new int[count * 2];
+        }
+        return SprayPattern.scatter(random, centerX, centerY, radius, count, droplets);
+    }
+}
@@ -0,0 +1,204 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+/**
+ * Bulk pixel operations for fills and clears.
+ * Works directly on the backing int array of TYPE_INT_ARGB images, one row at a time,
+ * and falls back to row-wise getRGB/setRGB for any other image type.
+ */
+public final class BulkFill {
+
+    private BulkFill() {
+    }
+
+    /**
+     * A byte per pixel coverage mask, limited to the bounds of the shape it was rasterized from.
+     */
+    public static final class Coverage {
+        private final Rectangle bounds;
+        private final byte[] data;
+
+        Coverage(Rectangle bounds, byte[] data) {
+            this.bounds = bounds;
+            this.data = data;
+        }
+
+        public Rectangle getBounds() {
+            return new Rectangle(bounds);
+        }
+
+        public boolean isEmpty() {
+            return bounds.isEmpty();
+        }
+
+        /**
+         * Returns true if the pixel at image coordinates (x, y) is covered.
+         */
+        public boolean contains(int x, int y) {
+            int lx = x - bounds.x;
+            int ly = y - bounds.y;
+            if (lx < 0 || ly < 0 || lx >= bounds.width || ly >= bounds.height) {
+                return false;
+            }
+            return data[ly * bounds.width + lx] != 0;
+        }
+    }
+
+    /**
+     * Rasterizes a shape into a coverage mask, clipped to an image of the given size.
+     * Antialiasing is off, so a pixel is covered when its centre is inside the shape.
+     */
+    public static Coverage rasterize(Shape shape, int width, int height) {
+        return rasterize(shape, new Rectangle(0, 0, width, height));
+    }
+
+    /**
+     * Rasterizes the part of a shape that falls inside the area into a coverage mask.
+     */
+    public static Coverage rasterize(Shape shape, Rectangle area) {
+        Rectangle bounds = shape.getBounds().intersection(area);
+        if (bounds.isEmpty()) {
+            return new Coverage(new Rectangle(), new byte[0]);
+        }
+
+        BufferedImage mask = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = mask.createGraphics();
+        g2d.translate(-bounds.x, -bounds.y);
+        g2d.setColor(Color.WHITE);
+        g2d.fill(shape);
+        g2d.dispose();
+
+        return new Coverage(bounds, ((DataBufferByte) mask.getRaster().getDataBuffer()).getData());
+    }
+
+    /**
+     * Sets every pixel of the image to the given ARGB value.
+     */
+    public static void fill(BufferedImage image, int argb) {
+        fill(image, new Rectangle(0, 0, image.getWidth(), image.getHeight()), argb);
+    }
+
+    /**
+     * Sets every pixel inside the area to the given ARGB value.
+     */
+    public static void fill(BufferedImage image, Rectangle area, int argb) {
+        Rectangle r = area.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (r.isEmpty()) {
+            return;
+        }
+
+        PixelAccess pixels = PixelAccess.of(image);
+        if (pixels != null) {
+            for (int y = r.y; y < r.y + r.height; y++) {
+                int start = pixels.index(r.x, y);
+                Arrays.fill(pixels.data, start, start + r.width, argb);
+            }
+        } else {
+            int[] row = new int[r.width];
+            Arrays.fill(row, argb);
+            for (int y = r.y; y < r.y + r.height; y++) {
+                image.setRGB(r.x, y, r.width, 1, row, 0, r.width);
+            }
+        }
+    }
+
+    /**
+     * Clears the whole image to fully transparent black.
+     */
+    public static void clear(BufferedImage image) {
+        fill(image, 0);
+    }
+
+    /**
+     * Sets the alpha of every pixel to zero, keeping the color components.
+     */
+    public static void clearAlpha(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        PixelAccess pixels = PixelAccess.of(image);
+        if (pixels != null) {
+            for (int y = 0; y < height; y++) {
+                int start = pixels.index(0, y);
+                for (int i = start; i < start + width; i++) {
+                    pixels.data[i] &= 0x00FFFFFF;
+                }
+            }
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    row[x] &= 0x00FFFFFF;
+                }
+                image.setRGB(0, y, width, 1, row, 0, width);
+            }
+        }
+    }
+
+    /**
+     * Sets every covered pixel to the given ARGB value, one run of covered pixels at a time.
+     */
+    public static void fillSpans(BufferedImage image, Coverage coverage, int argb) {
+        applySpans(image, coverage, argb, false);
+    }
+
+    /**
+     * Sets the alpha of every covered pixel to zero, keeping the color components.
+     */
+    public static void clearAlphaSpans(BufferedImage image, Coverage coverage) {
+        applySpans(image, coverage, 0, true);
+    }
+
+    private static void applySpans(BufferedImage image, Coverage coverage, int argb, boolean alphaOnly) {
+        Rectangle b = coverage.bounds;
+        if (b.isEmpty()) {
+            return;
+        }
+
+        PixelAccess pixels = PixelAccess.of(image);
+        int[] row = pixels == null ? new int[b.width] : null;
+
+        for (int ly = 0; ly < b.height; ly++) {
+            int maskOffset = ly * b.width;
+            int y = b.y + ly;
+            if (row != null) {
+                image.getRGB(b.x, y, b.width, 1, row, 0, b.width);
+            }
+
+            int lx = 0;
+            while (lx < b.width) {
+                // Skip uncovered pixels, then find the end of the covered run
+                while (lx < b.width && coverage.data[maskOffset + lx] == 0) {
+                    lx++;
+                }
+                int runStart = lx;
+                while (lx < b.width && coverage.data[maskOffset + lx] != 0) {
+                    lx++;
+                }
+                if (runStart == lx) {
+                    break;
+                }
+
+                int[] target = row != null ? row : pixels.data;
+                int from = row != null ? runStart : pixels.index(b.x + runStart, y);
+                int to = from + (lx - runStart);
+                if (alphaOnly) {
+                    for (int i = from; i < to; i++) {
+                        target[i] &= 0x00FFFFFF;
+                    }
+                } else {
+                    Arrays.fill(target, from, to, argb);
+                }
+            }
+
+            if (row != null) {
+                image.setRGB(b.x, y, b.width, 1, row, 0, b.width);
+            }
+        }
+    }
+}
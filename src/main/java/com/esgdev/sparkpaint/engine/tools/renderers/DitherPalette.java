@@ -0,0 +1,106 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The palette of the dither filter: a gradient of opaque colors between the drawing and fill
+ * colors, plus full transparency. A table over all colors quantized to five bits per channel
+ * holds the nearest opaque entry, so matching a pixel is a lookup and one distance check
+ * against transparency. Palettes are kept in a small least-recently-used cache, as a stroke
+ * uses the same one for every dab.
+ */
+final class DitherPalette {
+    private static final int CACHE_SIZE = 8;
+    private static final int CHANNEL_BITS = 5;
+    private static final int CELLS = 1 << CHANNEL_BITS;
+    private static final int CELL_SHIFT = 8 - CHANNEL_BITS;
+
+    private static final Map<Long, DitherPalette> cache = new LinkedHashMap<Long, DitherPalette>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DitherPalette> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final int[] colors;
+    private final byte[] nearest;
+
+    private DitherPalette(int[] colors, byte[] nearest) {
+        this.colors = colors;
+        this.nearest = nearest;
+    }
+
+    /**
+     * Returns the palette for the colors and strength, building it on first use.
+     *
+     * @param primary   the packed RGB color at one end of the gradient
+     * @param secondary the packed RGB color at the other end
+     * @param strength  the filter strength, which sets the number of gradient steps
+     */
+    static DitherPalette get(int primary, int secondary, float strength) {
+        int levels = 2 + (int) (strength * 6); // 2 to 8 levels
+        long key = ((long) (primary & 0xFFFFFF) << 28) | ((long) (secondary & 0xFFFFFF) << 4) | levels;
+        synchronized (cache) {
+            DitherPalette palette = cache.get(key);
+            if (palette == null) {
+                palette = build(primary, secondary, levels);
+                cache.put(key, palette);
+            }
+            return palette;
+        }
+    }
+
+    private static DitherPalette build(int primary, int secondary, int levels) {
+        // Create gradient between drawing and fill colors
+        int[] colors = new int[levels];
+        for (int i = 0; i < levels; i++) {
+            float ratio = (float) i / (levels - 1);
+            int r = (int) (((primary >> 16) & 0xFF) * (1 - ratio) + ((secondary >> 16) & 0xFF) * ratio);
+            int g = (int) (((primary >> 8) & 0xFF) * (1 - ratio) + ((secondary >> 8) & 0xFF) * ratio);
+            int b = (int) ((primary & 0xFF) * (1 - ratio) + (secondary & 0xFF) * ratio);
+            colors[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+
+        // Match the centre of each cell; the first of equally near entries wins
+        byte[] nearest = new byte[CELLS * CELLS * CELLS];
+        int half = 1 << (CELL_SHIFT - 1);
+        for (int cell = 0; cell < nearest.length; cell++) {
+            int r = ((cell >> (2 * CHANNEL_BITS)) << CELL_SHIFT) + half;
+            int g = (((cell >> CHANNEL_BITS) & (CELLS - 1)) << CELL_SHIFT) + half;
+            int b = ((cell & (CELLS - 1)) << CELL_SHIFT) + half;
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int i = 0; i < levels; i++) {
+                int distance = distance(colors[i], r, g, b);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            nearest[cell] = (byte) best;
+        }
+        return new DitherPalette(colors, nearest);
+    }
+
+    private static int distance(int color, int r, int g, int b) {
+        int rDiff = ((color >> 16) & 0xFF) - r;
+        int gDiff = ((color >> 8) & 0xFF) - g;
+        int bDiff = (color & 0xFF) - b;
+        return rDiff * rDiff + gDiff * gDiff + bDiff * bDiff;
+    }
+
+    /**
+     * Returns the palette entry closest to the color, with alpha differences weighing double.
+     *
+     * @return the packed ARGB entry, which is 0 for the transparent one
+     */
+    int closest(int r, int g, int b, int a) {
+        int cell = (r >> CELL_SHIFT) << (2 * CHANNEL_BITS) | (g >> CELL_SHIFT) << CHANNEL_BITS | (b >> CELL_SHIFT);
+        int color = colors[nearest[cell]];
+        // All gradient entries are opaque, so alpha only decides between the nearest one and transparency
+        int opaque = distance(color, r, g, b) + 2 * (255 - a) * (255 - a);
+        int transparent = r * r + g * g + b * b + 2 * a * a;
+        return transparent < opaque ? 0 : color;
+    }
+}
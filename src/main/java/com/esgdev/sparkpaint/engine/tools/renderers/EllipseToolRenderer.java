@@ -130,35 +130,21 @@ public class EllipseToolRenderer extends BaseRenderer {
             return;
         }
 
-        try {
-            // Create mask for transparency
-            BufferedImage maskImage = createMask(image.getWidth(), image.getHeight(), clip);
-            Graphics2D maskG2d = maskImage.createGraphics();
-            configureGraphics(maskG2d, Color.WHITE, lineThickness);
+        // Only the pixels inside the bounds, padded for the stroke width, are touched
+        int padding = (int) Math.ceil(lineThickness) + 1;
+        Rectangle area = new Rectangle(bounds);
+        area.grow(padding, padding);
 
+        EraseCompositor.erase(image, area, clip, useAntiAliasing, 1.0f, g2d -> {
             // Draw mask for transparent parts
             if (transparentFill && isFilled) {
-                maskG2d.fillOval(bounds.x, bounds.y, bounds.width, bounds.height);
+                g2d.fillOval(bounds.x, bounds.y, bounds.width, bounds.height);
             }
 
             if (transparentOutline) {
-                maskG2d.drawOval(bounds.x, bounds.y, bounds.width, bounds.height);
+                g2d.setStroke(new BasicStroke(lineThickness));
+                g2d.drawOval(bounds.x, bounds.y, bounds.width, bounds.height);
             }
-
-            maskG2d.dispose();
-
-            // Add padding around bounds to account for stroke width
-            int padding = (int) Math.ceil(lineThickness);
-            int minX = Math.max(0, bounds.x - padding);
-            int minY = Math.max(0, bounds.y - padding);
-            int maxX = Math.min(image.getWidth(), bounds.x + bounds.width + padding);
-            int maxY = Math.min(image.getHeight(), bounds.y + bounds.height + padding);
-
-            // Apply transparency mask using base class method
-            applyTransparencyMask(image, maskImage, clip);
-        } catch (Exception e) {
-            System.err.println("Exception in applyTransparency: " + e.getMessage());
-            e.printStackTrace();
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The intensity of a soft round brush, a byte per pixel that is full inside the hard core and
+ * fades to nothing at the edge along one of the falloff curves. Masks depend only on the size,
+ * hardness and curve, so they are built once and kept in a small least-recently-used cache
+ * shared by all renderers, the same way as {@link BrushStamp}.
+ */
+public final class FalloffMask {
+    private static final int CACHE_SIZE = 32;
+    // Hardness is kept in whole percent, which is as fine as any setting can choose it
+    private static final int HARDNESS_STEPS = 100;
+    // The gaussian curve reaches three standard deviations at the edge
+    private static final double GAUSSIAN_EDGE = Math.exp(-4.5);
+
+    public enum Curve {
+        LINEAR,
+        SMOOTH,
+        GAUSSIAN
+    }
+
+    private static final Map<Long, FalloffMask> cache = new LinkedHashMap<Long, FalloffMask>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, FalloffMask> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final int size;
+    private final byte[] intensity;
+
+    private FalloffMask(int size, byte[] intensity) {
+        this.size = size;
+        this.intensity = intensity;
+    }
+
+    /**
+     * Returns the mask for a round brush, building it on first use.
+     *
+     * @param size     the width and height of the brush in pixels
+     * @param hardness the part of the radius at full intensity, from 0 for a fade from the
+     *                 centre to 1 for a hard edge
+     * @param curve    how the intensity falls off between the core and the edge
+     * @return the shared mask, which must not be modified
+     */
+    public static FalloffMask get(int size, float hardness, Curve curve) {
+        int clampedSize = Math.max(1, size);
+        int steps = Math.round(Math.max(0f, Math.min(1f, hardness)) * HARDNESS_STEPS);
+        long key = ((long) clampedSize << 16) | ((long) steps << 8) | curve.ordinal();
+        synchronized (cache) {
+            FalloffMask mask = cache.get(key);
+            if (mask == null) {
+                mask = build(clampedSize, steps / (double) HARDNESS_STEPS, curve);
+                cache.put(key, mask);
+            }
+            return mask;
+        }
+    }
+
+    private static FalloffMask build(int size, double hardness, Curve curve) {
+        byte[] intensity = new byte[size * size];
+        int center = size / 2;
+        double radius = size / 2.0;
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double distance = Math.sqrt((x - center) * (x - center) + (y - center) * (y - center)) / radius;
+                if (distance > 1) {
+                    continue;
+                }
+                // How far into the fading ring, from 0 at the core to 1 at the edge
+                double t = hardness >= 1 ? 0 : Math.max(0, (distance - hardness) / (1 - hardness));
+                intensity[y * size + x] = (byte) (int) (falloff(curve, t) * 255);
+            }
+        }
+        return new FalloffMask(size, intensity);
+    }
+
+    private static double falloff(Curve curve, double t) {
+        switch (curve) {
+            case SMOOTH:
+                return 1 - t * t * (3 - 2 * t);
+            case GAUSSIAN:
+                return (Math.exp(-4.5 * t * t) - GAUSSIAN_EDGE) / (1 - GAUSSIAN_EDGE);
+            case LINEAR:
+            default:
+                return 1 - t;
+        }
+    }
+
+    /**
+     * Returns the width and height of the mask.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the intensity at mask coordinates (x, y), from 0 for none to 255 for full.
+     * Coordinates outside the mask have no intensity.
+     */
+    public int intensityAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= size || y >= size) {
+            return 0;
+        }
+        return intensity[y * size + x] & 0xFF;
+    }
+}
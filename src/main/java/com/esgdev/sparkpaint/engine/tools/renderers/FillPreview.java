@@ -2,20 +2,30 @@ package com.esgdev.sparkpaint.engine.tools.renderers;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.tools.CoordinateContext;
-import com.esgdev.sparkpaint.engine.tools.FillTool;
 
 import java.awt.*;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
-import java.util.Stack;
 
 /**
- * Helper class to render fill previews for linear and circular gradients
+ * Helper class to render fill previews for linear and circular gradients.
+ * Smart gradient previews flood the region once per click and keep it as spans. While dragging,
+ * the gradient is rendered over the region bounds only, at reduced resolution for large regions.
  */
 public class FillPreview {
+    // Regions larger than this many pixels are previewed at reduced resolution while dragging
+    private static final int DRAFT_PIXEL_BUDGET = 256 * 256;
+    private static final int PREVIEW_OPACITY = 153; // 60%
+    private static final int MARKER_PADDING = 8;
+
     private final DrawingCanvas canvas;
-    private BufferedImage smartGradientMask;
+    private FloodSpans smartGradientRegion;
+    private BufferedImage lastMaskImage;
     private Point lastMaskClickPoint;
+    private int lastMaskEpsilon;
+    private BufferedImage regionBuffer;
+    private BufferedImage gradientBuffer;
+    private Rectangle dirtyBounds;
 
     public FillPreview(DrawingCanvas canvas) {
         this.canvas = canvas;
@@ -25,6 +35,8 @@ public class FillPreview {
      * Renders a preview of a linear gradient
      */
     public void previewLinearGradient(Graphics2D g2d, Point start, Point end, GeneralPath clipPath) {
+        dirtyBounds = canvasBounds();
+
         // Apply selection clipping if provided
         if (clipPath != null) {
             g2d.setClip(clipPath);
@@ -62,6 +74,8 @@ public class FillPreview {
      * Renders a preview of a circular gradient
      */
     public void previewCircularGradient(Graphics2D g2d, Point center, Point radiusPoint, GeneralPath clipPath) {
+        dirtyBounds = canvasBounds();
+
         // Apply selection clipping if provided
         if (clipPath != null) {
             g2d.setClip(clipPath);
@@ -109,10 +123,11 @@ public class FillPreview {
     }
 
     /**
-     * Renders a preview of a smart linear gradient
+     * Renders a preview of a smart linear gradient.
+     * A draft preview may use reduced resolution; call again with draft false to refine it.
      */
     public void previewSmartLinear(Graphics2D g2d, Point clickPoint, Point start, Point end,
-                                   GeneralPath clipPath, CoordinateContext ctx, int epsilon) {
+                                   GeneralPath clipPath, CoordinateContext ctx, int epsilon, boolean draft) {
         if (clickPoint == null) return;
 
         // Apply selection clipping if provided
@@ -120,17 +135,10 @@ public class FillPreview {
             g2d.setClip(clipPath);
         }
 
-        // Generate the mask if needed
-        if (smartGradientMask == null || lastMaskClickPoint == null ||
-                !lastMaskClickPoint.equals(ctx.adjustedClickPoint)) {
+        updateRegion(ctx, epsilon);
 
-            try {
-                generateMaskForGradient(ctx, epsilon);
-                lastMaskClickPoint = new Point(ctx.adjustedClickPoint);
-            } catch (Exception ex) {
-                System.err.println("Error in preview: " + ex.getMessage());
-            }
-        }
+        // Draw the gradient preview first so the indicators stay on top
+        drawGradientWithMask(g2d, ctx, false, draft);
 
         // Draw gradient direction indicators
         drawColorMarkers(g2d, start, end);
@@ -139,15 +147,15 @@ public class FillPreview {
         g2d.setColor(Color.BLACK);
         g2d.drawLine(start.x, start.y, end.x, end.y);
 
-        // Draw the gradient preview
-        drawGradientWithMask(g2d, ctx, false);
+        addIndicatorBounds(start, end);
     }
 
     /**
-     * Renders a preview of a smart circular gradient
+     * Renders a preview of a smart circular gradient.
+     * A draft preview may use reduced resolution; call again with draft false to refine it.
      */
     public void previewSmartCircular(Graphics2D g2d, Point clickPoint, Point center, Point radiusPoint,
-                                     GeneralPath clipPath, CoordinateContext ctx, int epsilon) {
+                                     GeneralPath clipPath, CoordinateContext ctx, int epsilon, boolean draft) {
         if (clickPoint == null) return;
 
         // Apply selection clipping if provided
@@ -155,19 +163,11 @@ public class FillPreview {
             g2d.setClip(clipPath);
         }
 
-        // Generate the mask if needed
-        if (smartGradientMask == null || lastMaskClickPoint == null ||
-                !lastMaskClickPoint.equals(ctx.adjustedClickPoint)) {
+        updateRegion(ctx, epsilon);
 
-            try {
-                generateMaskForGradient(ctx, epsilon);
-                lastMaskClickPoint = new Point(ctx.adjustedClickPoint);
-            } catch (Exception ex) {
-                System.err.println("Error in preview: " + ex.getMessage());
-            }
-        }
+        // Draw the gradient preview first so the indicators stay on top
+        drawGradientWithMask(g2d, ctx, true, draft);
 
-        // Draw gradient direction indicators
         // Draw radius line with dashed style
         g2d.setStroke(new BasicStroke(1.0f, BasicStroke.CAP_BUTT,
                 BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0));
@@ -183,96 +183,97 @@ public class FillPreview {
         g2d.fillOval(center.x - centerMarkerSize / 2, center.y - centerMarkerSize / 2,
                 centerMarkerSize, centerMarkerSize);
 
-        // Draw the gradient preview
-        drawGradientWithMask(g2d, ctx, true);
+        addIndicatorBounds(center, radiusPoint);
     }
 
     /**
-     * Helper method to generate mask for gradient
+     * Returns the area of the tool canvas touched by the last preview, in drawing coordinates.
+     * Clearing this area is enough to erase the preview.
      */
-    private void generateMaskForGradient(CoordinateContext ctx, int epsilon) {
-        int width = ctx.currentImage.getWidth();
-        int height = ctx.currentImage.getHeight();
-
-        // Create new mask
-        smartGradientMask = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    public Rectangle getDirtyBounds() {
+        return dirtyBounds != null ? new Rectangle(dirtyBounds) : null;
+    }
 
-        // Get target color and generate mask
-        int targetRGB = ctx.currentImage.getRGB(ctx.adjustedClickPoint.x, ctx.adjustedClickPoint.y);
-        Color targetColor = new Color(targetRGB, true);
+    /**
+     * Returns the region the preview flooded, if it was flooded in the same image from the same
+     * click point and tolerance, so the final fill can paint it without flooding again.
+     *
+     * @return the cached spans, or null if the fill has to flood the region itself
+     */
+    public FloodSpans getRegion(BufferedImage image, Point clickPoint, int epsilon) {
+        return isRegionFor(image, clickPoint, epsilon) ? smartGradientRegion : null;
+    }
 
-        generateSmartFillMask(smartGradientMask, ctx.currentImage,
-                ctx.adjustedClickPoint.x, ctx.adjustedClickPoint.y,
-                targetColor, epsilon, ctx.clipPath);
+    private boolean isRegionFor(BufferedImage image, Point clickPoint, int epsilon) {
+        return smartGradientRegion != null && lastMaskImage == image && lastMaskClickPoint != null
+                && lastMaskClickPoint.equals(clickPoint) && lastMaskEpsilon == epsilon;
     }
 
     /**
-     * Helper method to generate smart fill mask
+     * Floods the region under the click point, unless it is already known for this click and tolerance.
      */
-    private void generateSmartFillMask(BufferedImage mask, BufferedImage source,
-                                       int x, int y, Color targetColor,
-                                       int epsilon, GeneralPath clipPath) {
-        int width = source.getWidth();
-        int height = source.getHeight();
-        int targetRGB = targetColor.getRGB();
-
-        // Clear the mask
-        Graphics2D maskG2d = mask.createGraphics();
-        maskG2d.setComposite(AlphaComposite.Clear);
-        maskG2d.fillRect(0, 0, width, height);
-        maskG2d.dispose();
-
-        // Use flood fill to identify pixels to include
-        boolean[][] visited = new boolean[width][height];
-        Stack<Point> stack = new Stack<>();
-        stack.push(new Point(x, y));
-
-        while (!stack.isEmpty()) {
-            Point p = stack.pop();
-            x = p.x;
-            y = p.y;
-
-            if (x < 0 || x >= width || y < 0 || y >= height || visited[x][y]) {
-                continue;
-            }
-
-            int currentRGB = source.getRGB(x, y);
-
-            // Check color distance
-            double distance = FillTool.colorDistance(currentRGB, targetRGB);
-            if (distance > epsilon || (clipPath != null && !clipPath.contains(x, y))) {
-                continue;
-            }
-
-            // Mark this pixel in the mask
-            mask.setRGB(x, y, 0xFFFFFFFF); // Opaque white
-            visited[x][y] = true;
-
-            // Check neighbors
-            if (x > 0) stack.push(new Point(x - 1, y));
-            if (x < width - 1) stack.push(new Point(x + 1, y));
-            if (y > 0) stack.push(new Point(x, y - 1));
-            if (y < height - 1) stack.push(new Point(x, y + 1));
+    private void updateRegion(CoordinateContext ctx, int epsilon) {
+        if (isRegionFor(ctx.currentImage, ctx.adjustedClickPoint, epsilon)) {
+            return;
+        }
+
+        try {
+            int targetRGB = ctx.currentImage.getRGB(ctx.adjustedClickPoint.x, ctx.adjustedClickPoint.y);
+            smartGradientRegion = FloodSpans.flood(ctx.currentImage,
+                    ctx.adjustedClickPoint.x, ctx.adjustedClickPoint.y, targetRGB, epsilon, ctx.clipPath);
+            lastMaskImage = ctx.currentImage;
+            lastMaskClickPoint = new Point(ctx.adjustedClickPoint);
+            lastMaskEpsilon = epsilon;
+            // A buffer left over from the previous region may hold pixels outside the new spans
+            regionBuffer = null;
+        } catch (Exception ex) {
+            System.err.println("Error in preview: " + ex.getMessage());
         }
     }
 
     /**
-     * Helper method to draw gradient with mask
+     * Helper method to draw the gradient over the flooded region
      */
-    private void drawGradientWithMask(Graphics2D g2d, CoordinateContext ctx, boolean circular) {
-        if (smartGradientMask == null) return;
+    private void drawGradientWithMask(Graphics2D g2d, CoordinateContext ctx, boolean circular, boolean draft) {
+        int offsetX = ctx.bounds != null ? ctx.bounds.x : 0;
+        int offsetY = ctx.bounds != null ? ctx.bounds.y : 0;
+        dirtyBounds = new Rectangle(offsetX, offsetY, 0, 0);
+        if (smartGradientRegion == null || smartGradientRegion.isEmpty()) return;
+
+        Rectangle region = smartGradientRegion.getBounds();
+
+        // Pick a resolution that keeps the number of rendered gradient pixels within budget
+        int scale = 1;
+        if (draft) {
+            double area = (double) region.width * region.height;
+            scale = Math.max(1, (int) Math.ceil(Math.sqrt(area / DRAFT_PIXEL_BUDGET)));
+        }
 
-        // Create preview image
-        BufferedImage previewImage = new BufferedImage(
-                ctx.currentImage.getWidth(), ctx.currentImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D previewG2d = previewImage.createGraphics();
+        // Render the gradient over the region bounds only
+        int gradientWidth = (region.width + scale - 1) / scale;
+        int gradientHeight = (region.height + scale - 1) / scale;
+        gradientBuffer = reuseBuffer(gradientBuffer, gradientWidth, gradientHeight);
+        Graphics2D gradientG2d = gradientBuffer.createGraphics();
+        gradientG2d.scale(1.0 / scale, 1.0 / scale);
+        gradientG2d.translate(-region.x, -region.y);
+        gradientG2d.setPaint(createGradientPaint(ctx, circular));
+        gradientG2d.fill(region);
+        gradientG2d.dispose();
+
+        // Copy the region's spans into a buffer; pixels outside the spans are never written and stay clear
+        regionBuffer = reuseBuffer(regionBuffer, region.width, region.height);
+        smartGradientRegion.copyScaled(gradientBuffer, scale, PREVIEW_OPACITY, regionBuffer, 0, 0);
+
+        g2d.drawImage(regionBuffer, region.x + offsetX, region.y + offsetY, null);
+        dirtyBounds = new Rectangle(region.x + offsetX, region.y + offsetY, region.width, region.height);
+    }
 
+    private Paint createGradientPaint(CoordinateContext ctx, boolean circular) {
         if (circular) {
             // Calculate radius for circular gradient
-            double radius = ctx.adjustedStart.distance(ctx.adjustedEnd);
+            double radius = Math.max(1.0, ctx.adjustedStart.distance(ctx.adjustedEnd));
 
-            // Create radial gradient paint
-            RadialGradientPaint paint = new RadialGradientPaint(
+            return new RadialGradientPaint(
                     ctx.adjustedStart,
                     (float) radius,
                     new float[]{0.0f, 1.0f},
@@ -281,34 +282,36 @@ public class FillPreview {
                             canvas.getFillColor()
                     }
             );
-            previewG2d.setPaint(paint);
-        } else {
-            // Create linear gradient paint
-            GradientPaint paint = new GradientPaint(
-                    ctx.adjustedStart.x, ctx.adjustedStart.y, canvas.getDrawingColor(),
-                    ctx.adjustedEnd.x, ctx.adjustedEnd.y, canvas.getFillColor(), false
-            );
-            previewG2d.setPaint(paint);
         }
+        return new GradientPaint(
+                ctx.adjustedStart.x, ctx.adjustedStart.y, canvas.getDrawingColor(),
+                ctx.adjustedEnd.x, ctx.adjustedEnd.y, canvas.getFillColor(), false
+        );
+    }
 
-        previewG2d.fillRect(0, 0, previewImage.getWidth(), previewImage.getHeight());
-        previewG2d.dispose();
-
-        // Apply mask with proper transformation
-        if (ctx.bounds != null) {
-            g2d.translate(ctx.bounds.x, ctx.bounds.y);
+    private BufferedImage reuseBuffer(BufferedImage buffer, int width, int height) {
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         }
+        return buffer;
+    }
 
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.6f));
-        g2d.drawImage(smartGradientMask, 0, 0, null);
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_IN, 1.0f));
-        g2d.drawImage(previewImage, 0, 0, null);
-
-        if (ctx.bounds != null) {
-            g2d.translate(-ctx.bounds.x, -ctx.bounds.y);
+    private void addIndicatorBounds(Point start, Point end) {
+        Rectangle indicators = new Rectangle(start);
+        indicators.add(end);
+        indicators.grow(MARKER_PADDING, MARKER_PADDING);
+        if (dirtyBounds == null || dirtyBounds.isEmpty()) {
+            dirtyBounds = indicators;
+        } else {
+            dirtyBounds.add(indicators);
         }
     }
 
+    private Rectangle canvasBounds() {
+        BufferedImage image = canvas.getCurrentLayerImage();
+        return new Rectangle(0, 0, image.getWidth(), image.getHeight());
+    }
+
     /**
      * Helper method to draw color markers
      */
@@ -336,7 +339,11 @@ public class FillPreview {
      * Clear any stored mask data
      */
     public void clearMask() {
-        smartGradientMask = null;
+        smartGradientRegion = null;
+        lastMaskImage = null;
         lastMaskClickPoint = null;
+        regionBuffer = null;
+        gradientBuffer = null;
+        dirtyBounds = null;
     }
 }
\ No newline at end of file
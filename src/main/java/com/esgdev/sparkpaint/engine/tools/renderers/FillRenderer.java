@@ -7,10 +7,11 @@ import java.awt.*;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
 import java.util.Stack;
+import java.util.stream.IntStream;
 
 /**
  * FillRenderer is responsible for rendering fill operations on a DrawingCanvas.
- * It supports linear and circular gradients, smart fills, and canvas fills.
+ * It supports linear and circular gradients, smart fills, global color replacement and canvas fills.
  */
 public class FillRenderer extends BaseRenderer {
     private final DrawingCanvas canvas;
@@ -92,38 +93,29 @@ public class FillRenderer extends BaseRenderer {
      */
     public void applySmartLinear(BufferedImage image, int x, int y, Color targetColor,
                                  Point startPoint, Point endPoint, int epsilon, GeneralPath clipPath) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-
-        // Create a mask image to store which pixels should be filled
-        BufferedImage mask = createMask(width, height, clipPath);
+        // Create the gradient
+        GradientPaint gradient = new GradientPaint(
+                startPoint.x, startPoint.y, canvas.getDrawingColor(),
+                endPoint.x, endPoint.y, canvas.getFillColor(),
+                false // Don't cycle the gradient
+        );
 
         // Use the smart fill algorithm to determine which pixels to fill
-        RenderUtils.generateSmartFillMask(mask, image, x, y, targetColor, epsilon, clipPath);
-
-        // Create and fill a buffer with gradient
-        BufferedImage gradientImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D gradientG2d = gradientImage.createGraphics();
+        FloodSpans region = FloodSpans.flood(image, x, y, targetColor.getRGB(), epsilon, clipPath);
+        applyPaintToRegion(image, region, gradient);
+    }
 
-        // Create the gradient
+    /**
+     * Applies a smart linear gradient to a region that was already flooded, such as the one
+     * the preview kept while dragging.
+     */
+    public void applySmartLinear(BufferedImage image, FloodSpans region, Point startPoint, Point endPoint) {
         GradientPaint gradient = new GradientPaint(
                 startPoint.x, startPoint.y, canvas.getDrawingColor(),
                 endPoint.x, endPoint.y, canvas.getFillColor(),
                 false // Don't cycle the gradient
         );
-        gradientG2d.setPaint(gradient);
-        gradientG2d.fillRect(0, 0, width, height);
-        gradientG2d.dispose();
-
-        // Apply the gradient only where mask is white
-        for (int py = 0; py < height; py++) {
-            for (int px = 0; px < width; px++) {
-                int maskRGB = mask.getRGB(px, py);
-                if (maskRGB != 0) { // If not transparent
-                    image.setRGB(px, py, gradientImage.getRGB(px, py));
-                }
-            }
-        }
+        applyPaintToRegion(image, region, gradient);
     }
 
     /**
@@ -131,15 +123,6 @@ public class FillRenderer extends BaseRenderer {
      */
     public void applySmartCircular(BufferedImage image, int x, int y, Color targetColor,
                                    Point centerPoint, Point radiusPoint, int epsilon, GeneralPath clipPath) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-
-        // Create a mask image to store which pixels should be filled
-        BufferedImage mask = createMask(width, height, clipPath);
-
-        // Use the smart fill algorithm to determine which pixels to fill
-        RenderUtils.generateSmartFillMask(mask, image, x, y, targetColor, epsilon, clipPath);
-
         // Calculate the radius of the circular gradient
         double radius = centerPoint.distance(radiusPoint);
 
@@ -149,10 +132,6 @@ public class FillRenderer extends BaseRenderer {
             radius = 1.0;
         }
 
-        // Create an image for the gradient
-        BufferedImage gradientImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D gradientG2d = gradientImage.createGraphics();
-
         // Create the radial gradient paint
         RadialGradientPaint gradient = new RadialGradientPaint(
                 centerPoint,
@@ -163,19 +142,46 @@ public class FillRenderer extends BaseRenderer {
                         canvas.getFillColor()
                 }
         );
-        gradientG2d.setPaint(gradient);
-        gradientG2d.fillRect(0, 0, width, height);
-        gradientG2d.dispose();
 
-        // Apply the gradient only where the mask is white
-        for (int py = 0; py < height; py++) {
-            for (int px = 0; px < width; px++) {
-                int maskRGB = mask.getRGB(px, py);
-                if (maskRGB != 0) { // If not transparent
-                    image.setRGB(px, py, gradientImage.getRGB(px, py));
+        // Use the smart fill algorithm to determine which pixels to fill
+        FloodSpans region = FloodSpans.flood(image, x, y, targetColor.getRGB(), epsilon, clipPath);
+        applyPaintToRegion(image, region, gradient);
+    }
+
+    /**
+     * Applies a smart circular gradient to a region that was already flooded, such as the one
+     * the preview kept while dragging.
+     */
+    public void applySmartCircular(BufferedImage image, FloodSpans region, Point centerPoint, Point radiusPoint) {
+        RadialGradientPaint gradient = new RadialGradientPaint(
+                centerPoint,
+                (float) Math.max(1.0, centerPoint.distance(radiusPoint)),
+                new float[]{0.0f, 1.0f},
+                new Color[]{
+                        canvas.getDrawingColor(),
+                        canvas.getFillColor()
                 }
-            }
+        );
+        applyPaintToRegion(image, region, gradient);
+    }
+
+    /**
+     * Paints the flooded region only, rendering the paint over the region bounds instead of the whole image.
+     */
+    private void applyPaintToRegion(BufferedImage image, FloodSpans region, Paint paint) {
+        if (region.isEmpty()) {
+            return;
         }
+
+        Rectangle bounds = region.getBounds();
+        BufferedImage gradientImage = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gradientG2d = gradientImage.createGraphics();
+        gradientG2d.translate(-bounds.x, -bounds.y);
+        gradientG2d.setPaint(paint);
+        gradientG2d.fill(bounds);
+        gradientG2d.dispose();
+
+        region.copyScaled(gradientImage, 1, 255, image, bounds.x, bounds.y);
     }
 
     public void smartFill(BufferedImage image, int x, int y, Color targetColor, Color replacementColor,
@@ -230,46 +236,72 @@ public class FillRenderer extends BaseRenderer {
         }
     }
 
-    public void canvasFill(BufferedImage image, Color replacementColor, GeneralPath clipPath) {
+    /**
+     * Replaces every pixel within tolerance of the target color, whether or not it is
+     * connected to the clicked point. Uses the same distance check as smartFill, and
+     * processes the rows of the image in parallel.
+     */
+    public void replaceColor(BufferedImage image, Color targetColor, Color replacementColor,
+                             int epsilon, GeneralPath clipPath) {
         int width = image.getWidth();
         int height = image.getHeight();
+        int targetRGB = targetColor.getRGB();
         int replacementRGB = replacementColor.getRGB();
         boolean isTransparentFill = replacementColor.getAlpha() == 0;
 
-        // Use clipPath if available, otherwise fill entire image
-        if (clipPath != null) {
-            // Fill only within the clip path
-            Graphics2D g2d = image.createGraphics();
-            configureGraphics(g2d);
-            g2d.setClip(clipPath);
+        if (targetRGB == replacementRGB) {
+            return;
+        }
 
-            if (isTransparentFill) {
-                // Clear to transparency
-                g2d.setComposite(AlphaComposite.Clear);
-                g2d.fillRect(0, 0, width, height);
-            } else {
-                // Normal fill
-                g2d.setColor(replacementColor);
-                g2d.fillRect(0, 0, width, height);
+        // Rasterize the clip once instead of testing the path for every pixel
+        BulkFill.Coverage coverage = clipPath != null ? BulkFill.rasterize(clipPath, width, height) : null;
+        int firstRow = coverage != null ? coverage.getBounds().y : 0;
+        int lastRow = coverage != null ? firstRow + coverage.getBounds().height : height;
+
+        IntStream.range(firstRow, lastRow).parallel().forEach(y -> {
+            int[] row = image.getRGB(0, y, width, 1, null, 0, width);
+            boolean changed = false;
+
+            for (int x = 0; x < width; x++) {
+                if (coverage != null && !coverage.contains(x, y)) {
+                    continue;
+                }
+
+                int currentRGB = row[x];
+                if (FillTool.colorDistance(currentRGB, targetRGB) > epsilon) {
+                    continue;
+                }
+
+                // Transparent fill keeps the RGB components, like smartFill does
+                row[x] = isTransparentFill ? currentRGB & 0x00FFFFFF : replacementRGB;
+                changed = true;
             }
-            g2d.dispose();
-        } else {
-            // Fill the entire image
+
+            if (changed) {
+                image.setRGB(0, y, width, 1, row, 0, width);
+            }
+        });
+    }
+
+    /**
+     * Fills the whole image, or only the clip area, with the replacement color.
+     * A transparent replacement color clears the alpha and keeps the RGB components.
+     */
+    public void canvasFill(BufferedImage image, Color replacementColor, GeneralPath clipPath) {
+        boolean isTransparentFill = replacementColor.getAlpha() == 0;
+
+        if (clipPath != null) {
+            // Fill only the runs of pixels inside the clip path
+            BulkFill.Coverage coverage = BulkFill.rasterize(clipPath, image.getWidth(), image.getHeight());
             if (isTransparentFill) {
-                // Clear each pixel to transparency
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        image.setRGB(x, y, image.getRGB(x, y) & 0x00FFFFFF);
-                    }
-                }
+                BulkFill.clearAlphaSpans(image, coverage);
             } else {
-                // Normal fill
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        image.setRGB(x, y, replacementRGB);
-                    }
-                }
+                BulkFill.fillSpans(image, coverage, replacementColor.getRGB());
             }
+        } else if (isTransparentFill) {
+            BulkFill.clearAlpha(image);
+        } else {
+            BulkFill.fill(image, replacementColor.getRGB());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import com.esgdev.sparkpaint.engine.tools.FillTool;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The result of a smart fill flood stored as horizontal runs of pixels.
+ * Runs are grouped by row, so the region can be painted one span at a time
+ * without a full-size mask image.
+ */
+public final class FloodSpans {
+
+    /**
+     * Receives one horizontal run, from x0 inclusive to x1 exclusive.
+     */
+    public interface SpanConsumer {
+        void span(int y, int x0, int x1);
+    }
+
+    private final Rectangle bounds;
+    private final int[] rowStarts; // index of the first run of each row in bounds, plus an end marker
+    private final int[] runs;      // x0, x1 pairs
+
+    private FloodSpans(Rectangle bounds, int[] rowStarts, int[] runs) {
+        this.bounds = bounds;
+        this.rowStarts = rowStarts;
+        this.runs = runs;
+    }
+
+    /**
+     * Floods the 4-connected region around (x, y) whose pixels are within epsilon of targetRGB,
+     * using the same color distance as the fill tool. Pixels outside the clip are never included.
+     */
+    public static FloodSpans flood(BufferedImage source, int x, int y, int targetRGB, int epsilon, Shape clip) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return empty();
+        }
+
+        int[] pixels = source.getRGB(0, 0, width, height, null, 0, width);
+        BulkFill.Coverage coverage = clip != null ? BulkFill.rasterize(clip, width, height) : null;
+        boolean[] filled = new boolean[width * height];
+
+        // Runs are collected as y, x0, x1 triplets and grouped by row at the end
+        int[] found = new int[96];
+        int foundCount = 0;
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = y * width + x;
+
+        int minX = width, minY = height, maxX = -1, maxY = -1;
+
+        while (stackSize > 0) {
+            int seed = stack[--stackSize];
+            int sy = seed / width;
+            int sx = seed - sy * width;
+            if (!matches(pixels, filled, coverage, sx, sy, width, targetRGB, epsilon)) {
+                continue;
+            }
+
+            // Extend the run left and right from the seed
+            int left = sx;
+            while (left > 0 && matches(pixels, filled, coverage, left - 1, sy, width, targetRGB, epsilon)) {
+                left--;
+            }
+            int right = sx;
+            while (right < width - 1 && matches(pixels, filled, coverage, right + 1, sy, width, targetRGB, epsilon)) {
+                right++;
+            }
+            Arrays.fill(filled, sy * width + left, sy * width + right + 1, true);
+
+            if (foundCount + 3 > found.length) {
+                found = Arrays.copyOf(found, found.length * 2);
+            }
+            found[foundCount++] = sy;
+            found[foundCount++] = left;
+            found[foundCount++] = right + 1;
+
+            minX = Math.min(minX, left);
+            maxX = Math.max(maxX, right);
+            minY = Math.min(minY, sy);
+            maxY = Math.max(maxY, sy);
+
+            // Push one seed per matching run in the rows above and below
+            for (int ny = sy - 1; ny <= sy + 1; ny += 2) {
+                if (ny < 0 || ny >= height) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int nx = left; nx <= right; nx++) {
+                    boolean match = matches(pixels, filled, coverage, nx, ny, width, targetRGB, epsilon);
+                    if (match && !inRun) {
+                        if (stackSize == stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        stack[stackSize++] = ny * width + nx;
+                    }
+                    inRun = match;
+                }
+            }
+        }
+
+        if (foundCount == 0) {
+            return empty();
+        }
+
+        // Group the runs by row with a counting sort
+        Rectangle bounds = new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+        int[] rowStarts = new int[bounds.height + 1];
+        for (int i = 0; i < foundCount; i += 3) {
+            rowStarts[found[i] - minY + 1]++;
+        }
+        for (int row = 0; row < bounds.height; row++) {
+            rowStarts[row + 1] += rowStarts[row];
+        }
+        int[] next = Arrays.copyOf(rowStarts, bounds.height);
+        int[] runs = new int[(foundCount / 3) * 2];
+        for (int i = 0; i < foundCount; i += 3) {
+            int slot = next[found[i] - minY]++;
+            runs[slot * 2] = found[i + 1];
+            runs[slot * 2 + 1] = found[i + 2];
+        }
+
+        return new FloodSpans(bounds, rowStarts, runs);
+    }
+
+    /**
+     * Creates spans from runs already grouped by row; used by other region builders in this package.
+     */
+    static FloodSpans fromRows(Rectangle bounds, int[] rowStarts, int[] runs) {
+        return runs.length == 0 ? empty() : new FloodSpans(bounds, rowStarts, runs);
+    }
+
+    private static boolean matches(int[] pixels, boolean[] filled, BulkFill.Coverage coverage,
+                                   int x, int y, int width, int targetRGB, int epsilon) {
+        int index = y * width + x;
+        if (filled[index]) {
+            return false;
+        }
+        if (coverage != null && !coverage.contains(x, y)) {
+            return false;
+        }
+        return FillTool.colorDistance(pixels[index], targetRGB) <= epsilon;
+    }
+
+    private static FloodSpans empty() {
+        return new FloodSpans(new Rectangle(), new int[1], new int[0]);
+    }
+
+    /**
+     * Returns the bounding rectangle of the flooded region.
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+
+    public boolean isEmpty() {
+        return runs.length == 0;
+    }
+
+    /**
+     * Calls the consumer for every run, row by row from the top.
+     */
+    public void forEachSpan(SpanConsumer consumer) {
+        for (int row = 0; row < bounds.height; row++) {
+            int y = bounds.y + row;
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+                consumer.span(y, runs[i * 2], runs[i * 2 + 1]);
+            }
+        }
+    }
+
+    /**
+     * Copies the pixels of the flooded region from source to target. The source covers
+     * the bounds of the region, scaled down by the given factor, and is sampled nearest-neighbour.
+     * Source alpha is multiplied by opacity, which is between 0 and 255.
+     */
+    public void copyScaled(BufferedImage source, int scale, int opacity, BufferedImage target, int targetX, int targetY) {
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        int[] sourceRow = new int[sourceWidth];
+        int[] targetRow = new int[bounds.width];
+        int[] lastSourceY = {-1};
+
+        forEachSpan((y, x0, x1) -> {
+            int sy = Math.min(sourceHeight - 1, (y - bounds.y) / scale);
+            if (sy != lastSourceY[0]) {
+                source.getRGB(0, sy, sourceWidth, 1, sourceRow, 0, sourceWidth);
+                lastSourceY[0] = sy;
+            }
+            int length = x1 - x0;
+            for (int i = 0; i < length; i++) {
+                int sx = Math.min(sourceWidth - 1, (x0 + i - bounds.x) / scale);
+                int argb = sourceRow[sx];
+                if (opacity < 255) {
+                    int alpha = ((argb >>> 24) * opacity + 127) / 255;
+                    argb = (alpha << 24) | (argb & 0x00FFFFFF);
+                }
+                targetRow[i] = argb;
+            }
+            target.setRGB(targetX + x0 - bounds.x, targetY + y - bounds.y, length, 1, targetRow, 0, length);
+        });
+    }
+}
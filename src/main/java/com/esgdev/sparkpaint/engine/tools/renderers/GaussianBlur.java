@@ -0,0 +1,218 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gaussian blur of packed ARGB pixels as two one-dimensional passes, first along the rows and
+ * then along the columns. Small radii use an exact kernel in fixed point; larger ones use three
+ * running box blurs, which approximate the Gaussian at a cost that does not grow with the radius.
+ * Kernels are built once per radius and shared. Samples outside the area are left out and the
+ * remaining weights renormalized, so the edges do not darken.
+ */
+final class GaussianBlur {
+    // Above this radius the box approximation is cheaper than the kernel
+    static final int BOX_THRESHOLD = 8;
+    private static final int CACHE_SIZE = 16;
+    static final int WEIGHT_BITS = 16;
+    private static final int BOX_PASSES = 3;
+
+    private static final Map<Integer, Kernel> cache = new LinkedHashMap<Integer, Kernel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Kernel> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private GaussianBlur() {
+    }
+
+    /**
+     * Blurs the pixels in place.
+     *
+     * @param pixels the packed ARGB pixels, row by row
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @param radius the blur radius; the Gaussian has a standard deviation of a third of it
+     */
+    static void blur(int[] pixels, int width, int height, int radius) {
+        if (radius < 1 || width < 1 || height < 1) {
+            return;
+        }
+        Kernel kernel = kernel(radius);
+        int[] scratch = new int[width * height];
+
+        if (kernel.weights != null) {
+            convolve(pixels, scratch, height, width, 1, width, kernel.weights);
+            convolve(scratch, pixels, width, height, width, 1, kernel.weights);
+        } else {
+            // An even number of passes in all, so the result ends up back in pixels
+            int[] from = pixels;
+            int[] to = scratch;
+            for (int pass = 0; pass < BOX_PASSES * 2; pass++) {
+                int boxRadius = kernel.boxRadii[pass % BOX_PASSES];
+                if (pass < BOX_PASSES) {
+                    box(from, to, height, width, 1, width, boxRadius);
+                } else {
+                    box(from, to, width, height, width, 1, boxRadius);
+                }
+                int[] swap = from;
+                from = to;
+                to = swap;
+            }
+        }
+    }
+
+    static Kernel kernel(int radius) {
+        synchronized (cache) {
+            Kernel kernel = cache.get(radius);
+            if (kernel == null) {
+                kernel = radius > BOX_THRESHOLD ? Kernel.boxes(radius) : Kernel.gaussian(radius);
+                cache.put(radius, kernel);
+            }
+            return kernel;
+        }
+    }
+
+    /**
+     * Convolves each line with the kernel.
+     *
+     * @param lines    the number of lines
+     * @param length   the number of pixels in a line
+     * @param step     the distance in the array between neighbours in a line
+     * @param lineStep the distance in the array between the starts of two lines
+     */
+    private static void convolve(int[] src, int[] dst, int lines, int length, int step, int lineStep, int[] weights) {
+        int radius = weights.length / 2;
+        int full = 1 << WEIGHT_BITS;
+
+        for (int line = 0; line < lines; line++) {
+            int start = line * lineStep;
+            for (int i = 0; i < length; i++) {
+                int from = Math.max(0, i - radius);
+                int to = Math.min(length - 1, i + radius);
+                int a = 0, r = 0, g = 0, b = 0, total = 0;
+                int index = start + from * step;
+                for (int k = from - i + radius; k <= to - i + radius; k++, index += step) {
+                    int weight = weights[k];
+                    int pixel = src[index];
+                    a += (pixel >>> 24) * weight;
+                    r += ((pixel >> 16) & 0xFF) * weight;
+                    g += ((pixel >> 8) & 0xFF) * weight;
+                    b += (pixel & 0xFF) * weight;
+                    total += weight;
+                }
+
+                int pixel;
+                if (total == full) {
+                    int half = full >> 1;
+                    pixel = ((a + half) >>> WEIGHT_BITS) << 24 | ((r + half) >>> WEIGHT_BITS) << 16
+                            | ((g + half) >>> WEIGHT_BITS) << 8 | ((b + half) >>> WEIGHT_BITS);
+                } else {
+                    int half = total >> 1;
+                    pixel = (a + half) / total << 24 | (r + half) / total << 16
+                            | (g + half) / total << 8 | (b + half) / total;
+                }
+                dst[start + i * step] = pixel;
+            }
+        }
+    }
+
+    /**
+     * Averages each pixel with its neighbours within the radius along the line, keeping a
+     * running sum as the window slides.
+     */
+    private static void box(int[] src, int[] dst, int lines, int length, int step, int lineStep, int radius) {
+        for (int line = 0; line < lines; line++) {
+            int start = line * lineStep;
+            int a = 0, r = 0, g = 0, b = 0, count = 0;
+
+            for (int i = 0; i <= Math.min(radius, length - 1); i++) {
+                int pixel = src[start + i * step];
+                a += pixel >>> 24;
+                r += (pixel >> 16) & 0xFF;
+                g += (pixel >> 8) & 0xFF;
+                b += pixel & 0xFF;
+                count++;
+            }
+
+            for (int i = 0; i < length; i++) {
+                int half = count >> 1;
+                dst[start + i * step] = (a + half) / count << 24 | (r + half) / count << 16
+                        | (g + half) / count << 8 | (b + half) / count;
+
+                int entering = i + radius + 1;
+                if (entering < length) {
+                    int pixel = src[start + entering * step];
+                    a += pixel >>> 24;
+                    r += (pixel >> 16) & 0xFF;
+                    g += (pixel >> 8) & 0xFF;
+                    b += pixel & 0xFF;
+                    count++;
+                }
+                int leaving = i - radius;
+                if (leaving >= 0) {
+                    int pixel = src[start + leaving * step];
+                    a -= pixel >>> 24;
+                    r -= (pixel >> 16) & 0xFF;
+                    g -= (pixel >> 8) & 0xFF;
+                    b -= pixel & 0xFF;
+                    count--;
+                }
+            }
+        }
+    }
+
+    static final class Kernel {
+        // Either the one-dimensional Gaussian weights or the radii of the three box passes
+        final int[] weights;
+        final int[] boxRadii;
+
+        private Kernel(int[] weights, int[] boxRadii) {
+            this.weights = weights;
+            this.boxRadii = boxRadii;
+        }
+
+        static Kernel gaussian(int radius) {
+            double sigma = radius / 3.0;
+            double[] values = new double[radius * 2 + 1];
+            double total = 0;
+            for (int i = -radius; i <= radius; i++) {
+                values[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+                total += values[i + radius];
+            }
+
+            int[] weights = new int[values.length];
+            int sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                weights[i] = (int) Math.round(values[i] / total * (1 << WEIGHT_BITS));
+                sum += weights[i];
+            }
+            // Rounding may leave the weights slightly off one; the centre takes the difference
+            weights[radius] += (1 << WEIGHT_BITS) - sum;
+            return new Kernel(weights, null);
+        }
+
+        /**
+         * Picks the widths of three box blurs whose combined variance matches the Gaussian.
+         */
+        static Kernel boxes(int radius) {
+            double sigma = radius / 3.0;
+            double variance = 12 * sigma * sigma;
+            int lower = (int) Math.floor(Math.sqrt(variance / BOX_PASSES + 1));
+            if (lower % 2 == 0) {
+                lower--;
+            }
+            int upper = lower + 2;
+            int lowerCount = (int) Math.round(
+                    (variance - BOX_PASSES * lower * lower - 4 * BOX_PASSES * lower - 3 * BOX_PASSES)
+                            / (-4.0 * lower - 4));
+
+            int[] boxRadii = new int[BOX_PASSES];
+            for (int i = 0; i < BOX_PASSES; i++) {
+                boxRadii[i] = ((i < lowerCount ? lower : upper) - 1) / 2;
+            }
+            return new Kernel(null, boxRadii);
+        }
+    }
+}
@@ -125,17 +125,15 @@ public class LineToolRenderer extends BaseRenderer {
     }
 
     /**
-     * Draws a preview of a line/curve on a temporary canvas.
+     * Draws a preview of a line/curve on a temporary canvas. The caller clears the previous
+     * preview first.
+     *
+     * @return the bounds of the previewed path, not counting the line thickness
      */
-    public void drawPreview(BufferedImage tempCanvas, LineTool.LineMode mode, List<Point> points,
-                            Point currentPoint, Color color, float lineThickness) {
+    public Rectangle drawPreview(BufferedImage tempCanvas, LineTool.LineMode mode, List<Point> points,
+                                 Point currentPoint, Color color, float lineThickness) {
         Graphics2D g2d = tempCanvas.createGraphics();
 
-        // Clear the temp canvas
-        g2d.setComposite(AlphaComposite.Clear);
-        g2d.fillRect(0, 0, tempCanvas.getWidth(), tempCanvas.getHeight());
-        g2d.setComposite(AlphaComposite.SrcOver);
-
         // Apply rendering settings
         configureGraphics(g2d);
 
@@ -155,7 +153,10 @@ public class LineToolRenderer extends BaseRenderer {
         boolean isTransparentLine = color.getAlpha() == 0;
 
         if (mode == LineTool.LineMode.SINGLE_LINE) {
-            if (tempPoints.size() < 2) return;
+            if (tempPoints.size() < 2) {
+                g2d.dispose();
+                return calculatePathBounds(mode, tempPoints);
+            }
 
             Point startPoint = tempPoints.get(0);
             Point endPoint = tempPoints.get(1);
@@ -247,6 +248,25 @@ public class LineToolRenderer extends BaseRenderer {
         }
 
         g2d.dispose();
+        return calculatePathBounds(mode, tempPoints);
+    }
+
+    /**
+     * Returns the bounds of the path the mode draws through the points, not counting the line
+     * thickness. Curves can swing out past their control points, so their sampled points are used.
+     */
+    public Rectangle calculatePathBounds(LineTool.LineMode mode, List<Point> points) {
+        boolean curved = mode != LineTool.LineMode.SINGLE_LINE && mode != LineTool.LineMode.POLYLINE;
+        List<Point> pathPoints = curved ? calculateCurvePoints(points) : points;
+        Rectangle bounds = null;
+        for (Point point : pathPoints) {
+            if (bounds == null) {
+                bounds = new Rectangle(point);
+            } else {
+                bounds.add(point);
+            }
+        }
+        return bounds;
     }
 
     /**
@@ -259,31 +279,16 @@ public class LineToolRenderer extends BaseRenderer {
             return;
         }
 
-        try {
-            // Create a temporary mask image for the line
-            BufferedImage maskImage = createMask(image.getWidth(), image.getHeight(), g2d.getClip());
-            Graphics2D maskG2d = maskImage.createGraphics();
-
-            // Set up the mask with the same stroke settings
-            configureGraphics(maskG2d, lineThickness);
-
-            // Draw white line on mask
-            maskG2d.drawLine(p1.x, p1.y, p2.x, p2.y);
-            maskG2d.dispose();
-
-            // Calculate bounds of affected area for efficiency
-            int lineWidth = (int) Math.ceil(lineThickness);
-            int minX = Math.max(0, Math.min(p1.x, p2.x) - lineWidth);
-            int minY = Math.max(0, Math.min(p1.y, p2.y) - lineWidth);
-            int maxX = Math.min(image.getWidth(), Math.max(p1.x, p2.x) + lineWidth);
-            int maxY = Math.min(image.getHeight(), Math.max(p1.y, p2.y) + lineWidth);
-
-            // Apply transparency to pixels where the mask is non-zero
-            applyTransparencyMaskWithBounds(image, maskImage, g2d.getClip(), minX, minY, maxX, maxY);
-        } catch (Exception e) {
-            System.err.println("Exception in drawTransparentLine: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Bounds of the affected area, padded for the stroke width
+        int padding = (int) Math.ceil(lineThickness) + 1;
+        Rectangle area = new Rectangle(p1);
+        area.add(p2);
+        area.grow(padding, padding);
+
+        EraseCompositor.erase(image, area, g2d.getClip(), useAntiAliasing, 1.0f, mask -> {
+            mask.setStroke(new BasicStroke(lineThickness));
+            mask.drawLine(p1.x, p1.y, p2.x, p2.y);
+        });
     }
 
     /**
@@ -296,32 +301,15 @@ public class LineToolRenderer extends BaseRenderer {
             return;
         }
 
-        try {
-            // Create a temporary mask image for the path outline
-            BufferedImage maskImage = createMask(image.getWidth(), image.getHeight(), g2d.getClip());
-            Graphics2D maskG2d = maskImage.createGraphics();
-
-            // Set up the mask with the same stroke settings
-            configureGraphics(maskG2d, lineThickness);
-
-            // Draw white path outline on mask
-            maskG2d.draw(path);
-            maskG2d.dispose();
-
-            // Get path bounds
-            Rectangle bounds = path.getBounds();
-            int padding = (int) Math.ceil(lineThickness);
-            int minX = Math.max(0, bounds.x - padding);
-            int minY = Math.max(0, bounds.y - padding);
-            int maxX = Math.min(image.getWidth(), bounds.x + bounds.width + padding);
-            int maxY = Math.min(image.getHeight(), bounds.y + bounds.height + padding);
-
-            // Apply transparency to pixels where the mask is non-zero
-            applyTransparencyMaskWithBounds(image, maskImage, g2d.getClip(), minX, minY, maxX, maxY);
-        } catch (Exception e) {
-            System.err.println("Exception in drawTransparentPath: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Bounds of the affected area, padded for the stroke width
+        int padding = (int) Math.ceil(lineThickness) + 1;
+        Rectangle area = path.getBounds();
+        area.grow(padding, padding);
+
+        EraseCompositor.erase(image, area, g2d.getClip(), useAntiAliasing, 1.0f, mask -> {
+            mask.setStroke(new BasicStroke(lineThickness));
+            mask.draw(path);
+        });
     }
 
     /**
@@ -334,49 +322,7 @@ public class LineToolRenderer extends BaseRenderer {
             return;
         }
 
-        try {
-            // Create a temporary mask image for the path
-            BufferedImage maskImage = createMask(image.getWidth(), image.getHeight(), g2d.getClip());
-            Graphics2D maskG2d = maskImage.createGraphics();
-
-            // Fill the path with white on the mask
-            maskG2d.fill(path);
-            maskG2d.dispose();
-
-            // Get path bounds
-            Rectangle bounds = path.getBounds();
-            int minX = Math.max(0, bounds.x);
-            int minY = Math.max(0, bounds.y);
-            int maxX = Math.min(image.getWidth(), bounds.x + bounds.width);
-            int maxY = Math.min(image.getHeight(), bounds.y + bounds.height);
-
-            // Apply transparency to pixels where the mask is non-zero
-            applyTransparencyMaskWithBounds(image, maskImage, g2d.getClip(), minX, minY, maxX, maxY);
-        } catch (Exception e) {
-            System.err.println("Exception in fillTransparentPath: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Apply transparency to pixels in bounded region where the mask is non-zero.
-     */
-    private void applyTransparencyMaskWithBounds(BufferedImage image, BufferedImage maskImage,
-                                                 Shape clip, int minX, int minY, int maxX, int maxY) {
-        for (int y = minY; y < maxY; y++) {
-            for (int x = minX; x < maxX; x++) {
-                // Check if this pixel is within clip region
-                if (clip == null || clip.contains(x, y)) {
-                    int maskRGB = maskImage.getRGB(x, y);
-                    // Only process pixels where the mask is non-zero
-                    if ((maskRGB & 0xFF000000) != 0) {
-                        // Set full transparency (alpha = 0)
-                        int newRGB = image.getRGB(x, y) & 0x00FFFFFF;
-                        image.setRGB(x, y, newRGB);
-                    }
-                }
-            }
-        }
+        EraseCompositor.erase(image, path, g2d.getClip(), useAntiAliasing, 1.0f);
     }
 
     /**
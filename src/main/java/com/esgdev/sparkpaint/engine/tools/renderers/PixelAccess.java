@@ -0,0 +1,46 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Direct view of the int pixels of a TYPE_INT_ARGB image, including sub-images.
+ */
+final class PixelAccess {
+    final int[] data;
+    final int offset;
+    final int stride;
+
+    private PixelAccess(int[] data, int offset, int stride) {
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    int index(int x, int y) {
+        return offset + y * stride + x;
+    }
+
+    /**
+     * Returns direct access to the pixels, or null if the image is not backed by packed ARGB ints.
+     */
+    static PixelAccess of(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            return null;
+        }
+        WritableRaster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferInt)
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return null;
+        }
+
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset = buffer.getOffset()
+                - raster.getSampleModelTranslateY() * stride
+                - raster.getSampleModelTranslateX();
+        return new PixelAccess(buffer.getData(), offset, stride);
+    }
+}
@@ -1,11 +1,7 @@
 package com.esgdev.sparkpaint.engine.tools.renderers;
 
-import com.esgdev.sparkpaint.engine.tools.FillTool;
-
 import java.awt.*;
-import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
-import java.util.Stack;
 
 /**
  * Utility class for common rendering operations.
@@ -13,88 +9,107 @@ import java.util.Stack;
 public class RenderUtils {
 
     /**
-     * Blends two colors based on a blend strength.
+     * The fixed-point weight of a full blend. Weights run from 0 (keep the destination)
+     * to ONE (take the source).
      */
-    public static Color getBlendedColor(int currentRGB, float blendStrength, Color paintColor) {
-        Color currentColor = new Color(currentRGB, true);
-
-        // Extract alpha channel
-        int currentAlpha = currentColor.getAlpha();
-
-        // If completely transparent, just use the paint color with some opacity
-        if (currentAlpha == 0) {
-            return new Color(
-                    paintColor.getRed(),
-                    paintColor.getGreen(),
-                    paintColor.getBlue(),
-                    (int) (255 * blendStrength)
-            );
-        }
+    public static final int ONE = 256;
 
-        // For partially or fully opaque pixels, blend color components
-        int r = (int) ((1 - blendStrength) * currentColor.getRed() + blendStrength * paintColor.getRed());
-        int g = (int) ((1 - blendStrength) * currentColor.getGreen() + blendStrength * paintColor.getGreen());
-        int b = (int) ((1 - blendStrength) * currentColor.getBlue() + blendStrength * paintColor.getBlue());
+    private static final int RED_BLUE = 0x00FF00FF;
 
-        // Blend the alpha channel as well
-        int a = Math.min(255, currentAlpha + (int) (blendStrength * (255 - currentAlpha)));
+    /**
+     * Converts a strength between 0 and 1 to a fixed-point blend weight.
+     */
+    public static int toWeight(float strength) {
+        return Math.round(Math.max(0f, Math.min(1f, strength)) * ONE);
+    }
 
-        return new Color(r, g, b, a);
+    /**
+     * Scales a weight by an 8-bit coverage value.
+     */
+    public static int scaleWeight(int weight, int coverage) {
+        return (weight * coverage + 127) / 255;
     }
 
     /**
-     * Creates a circular gradient brush mask.
+     * Interpolates all four channels of two packed ARGB values.
      */
-    public static int[][] createCircularMask(int width, int height) {
-        int[][] mask = new int[width][height];
-        int centerX = width / 2;
-        int centerY = height / 2;
-        double radius = Math.min(width, height) / 2.0;
-
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                double distance = Math.sqrt(Math.pow(x - centerX, 2) + Math.pow(y - centerY, 2));
-                if (distance <= radius) {
-                    // Fade intensity from center (1.0) to edge (0.0)
-                    double intensity = 1.0 - (distance / radius);
-                    mask[x][y] = (int) (intensity * 255);
-                } else {
-                    mask[x][y] = 0;
-                }
-            }
-        }
+    public static int lerp(int from, int to, int weight) {
+        int inverse = ONE - weight;
+        // Red and blue, then alpha and green, two channels at a time
+        int redBlue = (((from & RED_BLUE) * inverse + (to & RED_BLUE) * weight) >>> 8) & RED_BLUE;
+        int alphaGreen = (((from >>> 8) & RED_BLUE) * inverse + ((to >>> 8) & RED_BLUE) * weight) & ~RED_BLUE;
+        return alphaGreen | redBlue;
+    }
 
-        return mask;
+    /**
+     * Blends a paint color into a pixel the way the brush does: the color moves toward the
+     * paint color and the alpha toward opaque by the weight. A fully transparent pixel takes
+     * the paint color with the weight as its alpha.
+     *
+     * @param dst    the packed ARGB pixel
+     * @param paint  the packed RGB paint color; its alpha is ignored
+     * @param weight the blend weight, from 0 to {@link #ONE}
+     * @return the blended packed ARGB pixel
+     */
+    public static int blend(int dst, int paint, int weight) {
+        if (weight <= 0) {
+            return dst;
+        }
+        if ((dst >>> 24) == 0) {
+            return (paint & 0x00FFFFFF) | (Math.min(255, (255 * weight) >> 8) << 24);
+        }
+        return lerp(dst, paint | 0xFF000000, weight);
     }
 
     /**
-     * Creates a 2D Gaussian kernel for blur operations.
+     * Blends a paint color into a span of pixels with {@link #blend(int, int, int)}.
      */
-    public static float[][] createGaussianKernel(int radius) {
-        int size = radius * 2 + 1;
-        float[][] kernel = new float[size][size];
-        float sigma = radius / 3.0f;
-        float twoSigmaSquare = 2.0f * sigma * sigma;
-        float sigmaRoot = (float) Math.sqrt(2.0f * Math.PI * sigma * sigma);
-        float total = 0.0f;
-
-        for (int y = -radius; y <= radius; y++) {
-            for (int x = -radius; x <= radius; x++) {
-                float distance = x * x + y * y;
-                kernel[y + radius][x + radius] =
-                        (float) Math.exp(-distance / twoSigmaSquare) / sigmaRoot;
-                total += kernel[y + radius][x + radius];
-            }
+    public static void blend(int[] pixels, int from, int to, int paint, int weight) {
+        for (int i = from; i < to; i++) {
+            pixels[i] = blend(pixels[i], paint, weight);
         }
+    }
 
-        // Normalize the kernel
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                kernel[y][x] /= total;
-            }
+    /**
+     * Composites a non-premultiplied source pixel over a destination pixel.
+     */
+    public static int srcOver(int dst, int src) {
+        int srcAlpha = src >>> 24;
+        if (srcAlpha == 255) {
+            return src;
         }
+        if (srcAlpha == 0) {
+            return dst;
+        }
+
+        // Weights in units of 1/255 alpha, so the colors are mixed before any rounding; the
+        // destination counts for the alpha the source leaves over
+        int srcWeight = srcAlpha * 255;
+        int dstWeight = (dst >>> 24) * (255 - srcAlpha);
+        int total = srcWeight + dstWeight;
+        int outAlpha = (total + 127) / 255;
+        int half = total / 2;
+        int r = (((src >> 16) & 0xFF) * srcWeight + ((dst >> 16) & 0xFF) * dstWeight + half) / total;
+        int g = (((src >> 8) & 0xFF) * srcWeight + ((dst >> 8) & 0xFF) * dstWeight + half) / total;
+        int b = ((src & 0xFF) * srcWeight + (dst & 0xFF) * dstWeight + half) / total;
+        return (outAlpha << 24) | (r << 16) | (g << 8) | b;
+    }
 
-        return kernel;
+    /**
+     * Lowers the alpha of a pixel by the weight, keeping its color components.
+     */
+    public static int eraseAlpha(int dst, int weight) {
+        int alpha = ((dst >>> 24) * (ONE - weight)) >> 8;
+        return (dst & 0x00FFFFFF) | (alpha << 24);
+    }
+
+    /**
+     * Lowers the alpha of a span of pixels with {@link #eraseAlpha(int, int)}.
+     */
+    public static void eraseAlpha(int[] pixels, int from, int to, int weight) {
+        for (int i = from; i < to; i++) {
+            pixels[i] = eraseAlpha(pixels[i], weight);
+        }
     }
 
     /**
@@ -119,49 +134,4 @@ public class RenderUtils {
                 10.0f, dashPattern, dashPattern[0]));
         g2d.draw(shape);
     }
-
-    /**
-     * Helper method to generate smart fill mask
-     * TODO move to RenderUtils
-     */
-    public static void generateSmartFillMask(BufferedImage mask, BufferedImage source,
-                                       int x, int y, Color targetColor,
-                                       int epsilon, GeneralPath clipPath) {
-        int width = source.getWidth();
-        int height = source.getHeight();
-        int targetRGB = targetColor.getRGB();
-
-        // Use flood fill to identify pixels to include
-        boolean[][] visited = new boolean[width][height];
-        Stack<Point> stack = new Stack<>();
-        stack.push(new Point(x, y));
-
-        while (!stack.isEmpty()) {
-            Point p = stack.pop();
-            x = p.x;
-            y = p.y;
-
-            if (x < 0 || x >= width || y < 0 || y >= height || visited[x][y]) {
-                continue;
-            }
-
-            int currentRGB = source.getRGB(x, y);
-
-            // Check color distance
-            double distance = FillTool.colorDistance(currentRGB, targetRGB);
-            if (distance > epsilon || (clipPath != null && !clipPath.contains(x, y))) {
-                continue;
-            }
-
-            // Mark this pixel in the mask
-            mask.setRGB(x, y, 0xFFFFFFFF); // Opaque white
-            visited[x][y] = true;
-
-            // Check neighbors
-            if (x > 0) stack.push(new Point(x - 1, y));
-            if (x < width - 1) stack.push(new Point(x + 1, y));
-            if (y > 0) stack.push(new Point(x, y - 1));
-            if (y < height - 1) stack.push(new Point(x, y + 1));
-        }
-    }
-}
\ No newline at end of file
+}
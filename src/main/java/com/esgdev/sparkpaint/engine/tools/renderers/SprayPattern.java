@@ -0,0 +1,60 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed droplet positions for the spray brush. One table of points spread evenly over
+ * the unit disk is shared by all brush sizes: each dab scales it to the brush radius, turns it
+ * by a random angle and starts at a random entry, so consecutive dabs do not repeat while no
+ * droplet needs a square root, a trig call or a rejected attempt.
+ */
+final class SprayPattern {
+    // Enough entries for the densest spray at the largest brush size without repeating
+    static final int DROPLETS = 8192;
+    private static final long TABLE_SEED = 0x5EED5BA7L;
+    private static final float[] UNIT_OFFSETS = createTable();
+
+    private SprayPattern() {
+    }
+
+    private static float[] createTable() {
+        SplittableRandom random = new SplittableRandom(TABLE_SEED);
+        float[] offsets = new float[DROPLETS * 2];
+        for (int i = 0; i < DROPLETS; i++) {
+            // The square root spreads the points evenly over the area rather than bunching them at the centre
+            double distance = Math.sqrt(random.nextDouble());
+            double angle = random.nextDouble() * 2 * Math.PI;
+            offsets[i * 2] = (float) (Math.cos(angle) * distance);
+            offsets[i * 2 + 1] = (float) (Math.sin(angle) * distance);
+        }
+        return offsets;
+    }
+
+    /**
+     * Places droplets for one dab.
+     *
+     * @param random    the stroke's random source, which decides the rotation and starting entry
+     * @param centerX   the dab centre
+     * @param centerY   the dab centre
+     * @param radius    the brush radius
+     * @param count     how many droplets to place, at most {@link #DROPLETS}
+     * @param positions receives x and y pairs; must hold at least count * 2 values
+     * @return the number of droplets placed
+     */
+    static int scatter(SplittableRandom random, int centerX, int centerY, int radius, int count, int[] positions) {
+        int droplets = Math.min(count, DROPLETS);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        float cos = (float) (Math.cos(angle) * radius);
+        float sin = (float) (Math.sin(angle) * radius);
+        int entry = random.nextInt(DROPLETS);
+
+        for (int i = 0; i < droplets; i++) {
+            float ux = UNIT_OFFSETS[entry * 2];
+            float uy = UNIT_OFFSETS[entry * 2 + 1];
+            positions[i * 2] = centerX + Math.round(ux * cos - uy * sin);
+            positions[i * 2 + 1] = centerY + Math.round(ux * sin + uy * cos);
+            entry = entry + 1 == DROPLETS ? 0 : entry + 1;
+        }
+        return droplets;
+    }
+}
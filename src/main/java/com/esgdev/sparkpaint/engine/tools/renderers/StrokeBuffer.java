@@ -0,0 +1,165 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Collects the coverage of all dabs in one stroke and blends it onto the target in one go.
+ * Overlapping dabs combine by taking the larger coverage, and every pixel is blended from its
+ * value before the stroke started, so a stroke never gets more opaque than its blend strength
+ * however often it crosses itself. The buffers are kept in square tiles allocated when the
+ * stroke first reaches them, so a long stroke only saves the pixels it passes over and nothing
+ * is ever copied twice.
+ */
+final class StrokeBuffer {
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    private BufferedImage target;
+    private Color paintColor;
+    private float strength;
+    private int paint;
+    private int weight;
+    private Tile[] tiles = new Tile[0];
+    private int tileColumns;
+    private Rectangle dirty;
+
+    /**
+     * Starts a stroke on the target image.
+     */
+    void begin(BufferedImage target, Color paintColor, float strength) {
+        this.target = target;
+        this.paintColor = paintColor;
+        this.strength = strength;
+        paint = paintColor != null ? paintColor.getRGB() : 0;
+        weight = RenderUtils.toWeight(strength);
+        if (target != null) {
+            tileColumns = (target.getWidth() + TILE_SIZE - 1) >> TILE_SHIFT;
+            int tileRows = (target.getHeight() + TILE_SIZE - 1) >> TILE_SHIFT;
+            tiles = new Tile[tileColumns * tileRows];
+        } else {
+            tileColumns = 0;
+            tiles = new Tile[0];
+        }
+        dirty = null;
+    }
+
+    /**
+     * Returns true if a stroke with these settings is in progress on the image.
+     */
+    boolean isActiveFor(BufferedImage image, Color paintColor, float strength) {
+        return target == image && paintColor.equals(this.paintColor) && strength == this.strength;
+    }
+
+    /**
+     * Adds a stamp with its top-left corner at (x, y).
+     *
+     * @param dab  the part of the stamp inside the target image
+     * @param clip the pixels that may be painted, or null for all of them
+     */
+    void addStamp(BrushStamp stamp, int x, int y, Rectangle dab, BulkFill.Coverage clip) {
+        if (dab.isEmpty()) {
+            return;
+        }
+        for (int ty = dab.y >> TILE_SHIFT; ty <= (dab.y + dab.height - 1) >> TILE_SHIFT; ty++) {
+            for (int tx = dab.x >> TILE_SHIFT; tx <= (dab.x + dab.width - 1) >> TILE_SHIFT; tx++) {
+                byte[] coverage = tile(tx, ty).coverage;
+                int tileX = tx << TILE_SHIFT;
+                int tileY = ty << TILE_SHIFT;
+                int fromX = Math.max(dab.x, tileX);
+                int toX = Math.min(dab.x + dab.width, tileX + TILE_SIZE);
+                int toY = Math.min(dab.y + dab.height, tileY + TILE_SIZE);
+                for (int py = Math.max(dab.y, tileY); py < toY; py++) {
+                    int offset = ((py - tileY) << TILE_SHIFT) - tileX;
+                    for (int px = fromX; px < toX; px++) {
+                        int value = stamp.coverageAt(px - x, py - y);
+                        if (value > (coverage[offset + px] & 0xFF) && (clip == null || clip.contains(px, py))) {
+                            coverage[offset + px] = (byte) value;
+                        }
+                    }
+                }
+            }
+        }
+        dirty = dirty == null ? new Rectangle(dab) : dirty.union(dab);
+    }
+
+    /**
+     * Blends the area changed since the last call onto the target.
+     */
+    void composite() {
+        if (target == null || dirty == null) {
+            return;
+        }
+
+        PixelAccess pixels = PixelAccess.of(target);
+        int[] row = pixels == null ? new int[TILE_SIZE] : null;
+        for (int ty = dirty.y >> TILE_SHIFT; ty <= (dirty.y + dirty.height - 1) >> TILE_SHIFT; ty++) {
+            for (int tx = dirty.x >> TILE_SHIFT; tx <= (dirty.x + dirty.width - 1) >> TILE_SHIFT; tx++) {
+                Tile tile = tiles[ty * tileColumns + tx];
+                if (tile == null) {
+                    continue; // Not reached by the stroke
+                }
+                int tileX = tx << TILE_SHIFT;
+                int tileY = ty << TILE_SHIFT;
+                int fromX = Math.max(dirty.x, tileX);
+                int toX = Math.min(dirty.x + dirty.width, tileX + TILE_SIZE);
+                int toY = Math.min(dirty.y + dirty.height, tileY + TILE_SIZE);
+                int width = toX - fromX;
+                for (int py = Math.max(dirty.y, tileY); py < toY; py++) {
+                    int offset = ((py - tileY) << TILE_SHIFT) - tileX;
+                    if (row != null) {
+                        target.getRGB(fromX, py, width, 1, row, 0, width);
+                    }
+                    for (int px = fromX; px < toX; px++) {
+                        int value = tile.coverage[offset + px] & 0xFF;
+                        if (value == 0) {
+                            continue;
+                        }
+                        int pixelWeight = value == 255 ? weight : RenderUtils.scaleWeight(weight, value);
+                        int blended = RenderUtils.blend(tile.original[offset + px], paint, pixelWeight);
+                        if (row != null) {
+                            row[px - fromX] = blended;
+                        } else {
+                            pixels.data[pixels.index(px, py)] = blended;
+                        }
+                    }
+                    if (row != null) {
+                        target.setRGB(fromX, py, width, 1, row, 0, width);
+                    }
+                }
+            }
+        }
+        dirty = null;
+    }
+
+    /**
+     * Blends whatever is left and releases the buffers.
+     */
+    void end() {
+        composite();
+        begin(null, null, 0);
+    }
+
+    /**
+     * Returns the tile at the tile coordinates, saving the untouched target pixels under it the
+     * first time the stroke reaches it.
+     */
+    private Tile tile(int tx, int ty) {
+        int index = ty * tileColumns + tx;
+        Tile tile = tiles[index];
+        if (tile == null) {
+            int x = tx << TILE_SHIFT;
+            int y = ty << TILE_SHIFT;
+            tile = new Tile();
+            target.getRGB(x, y, Math.min(TILE_SIZE, target.getWidth() - x), Math.min(TILE_SIZE, target.getHeight() - y),
+                    tile.original, 0, TILE_SIZE);
+            tiles[index] = tile;
+        }
+        return tile;
+    }
+
+    private static final class Tile {
+        final byte[] coverage = new byte[TILE_SIZE * TILE_SIZE];
+        final int[] original = new int[TILE_SIZE * TILE_SIZE];
+    }
+}
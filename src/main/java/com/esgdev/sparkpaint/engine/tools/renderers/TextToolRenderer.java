@@ -45,27 +45,35 @@ public class TextToolRenderer extends BaseRenderer {
     }
 
     /**
-     * Draws transparent text by creating a mask and applying transparency.
+     * Draws transparent text by erasing the pixels the glyphs cover.
      */
     private void drawTransparentText(BufferedImage targetImage, Point position,
                                      String text, Font font, Shape clip) {
-        // Create a mask image for transparency
-        BufferedImage maskImage = new BufferedImage(
-                targetImage.getWidth(), targetImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D maskG2d = maskImage.createGraphics();
+        if (text == null || text.isEmpty()) {
+            return;
+        }
 
-        // Apply rendering hints
-        maskG2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                useAntiAliasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        // Only the pixels under the text are rasterized and erased
+        Rectangle area = calculateTextBounds(position, text, font);
 
-        // Draw text onto mask
-        maskG2d.setFont(font);
-        maskG2d.setColor(Color.WHITE);
-        maskG2d.drawString(text, position.x, position.y);
-        maskG2d.dispose();
+        EraseCompositor.erase(targetImage, area, clip, useAntiAliasing, 1.0f, g2d -> {
+            g2d.setFont(font);
+            g2d.drawString(text, position.x, position.y);
+        });
+    }
 
-        // Apply transparency mask
-        applyTransparencyMask(targetImage, maskImage, clip);
+    /**
+     * Returns the area the text drawn at the position can touch, including its preview outline
+     * and a margin for antialiasing.
+     */
+    public Rectangle calculateTextBounds(Point position, String text, Font font) {
+        if (text == null || text.isEmpty()) {
+            return new Rectangle(position);
+        }
+        FontRenderContext frc = new FontRenderContext(null, useAntiAliasing, true);
+        Rectangle area = new TextLayout(text, font, frc).getPixelBounds(frc, position.x, position.y);
+        area.grow(2, 2);
+        return area;
     }
 
     /**
@@ -0,0 +1,186 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import com.esgdev.sparkpaint.engine.tools.FillTool;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * For one seed point, stores the lowest tolerance at which each pixel joins the flooded region.
+ * A pixel joins at tolerance t when a 4-connected path from the seed reaches it through pixels
+ * whose color distance to the seed color is at most t, so the join level is the smallest possible
+ * maximum distance along such a path. The map is built once per click with a bucket-queue flood;
+ * the region for any tolerance is then a threshold over it.
+ */
+public final class ToleranceMap {
+    private static final short NEVER = Short.MAX_VALUE;
+
+    private final int width;
+    private final int maxTolerance;
+    private final short[] levels;
+    private final Rectangle[] boundsAtLevel; // cumulative bounds of all pixels joining at or below each level
+
+    private ToleranceMap(int width, int maxTolerance, short[] levels, Rectangle[] boundsAtLevel) {
+        this.width = width;
+        this.maxTolerance = maxTolerance;
+        this.levels = levels;
+        this.boundsAtLevel = boundsAtLevel;
+    }
+
+    /**
+     * Builds the map for the seed at (x, y), taking the seed pixel's color as the target.
+     * Pixels that would only join above maxTolerance, or lie outside the clip, never join.
+     */
+    public static ToleranceMap compute(BufferedImage source, int x, int y, int maxTolerance, Shape clip) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        short[] levels = new short[width * height];
+        Arrays.fill(levels, NEVER);
+        Rectangle[] boundsAtLevel = new Rectangle[maxTolerance + 1];
+
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return new ToleranceMap(width, maxTolerance, levels, boundsAtLevel);
+        }
+
+        int[] pixels = source.getRGB(0, 0, width, height, null, 0, width);
+        BulkFill.Coverage coverage = clip != null ? BulkFill.rasterize(clip, width, height) : null;
+        int targetRGB = pixels[y * width + x];
+
+        // One growable stack of pixel indices per level; levels are processed in increasing order
+        int[][] buckets = new int[maxTolerance + 1][];
+        int[] bucketSizes = new int[maxTolerance + 1];
+
+        int seed = y * width + x;
+        if (coverage == null || coverage.contains(x, y)) {
+            levels[seed] = 0;
+            push(buckets, bucketSizes, 0, seed);
+        }
+
+        for (int level = 0; level <= maxTolerance; level++) {
+            int minX = width, minY = height, maxX = -1, maxY = -1;
+
+            while (bucketSizes[level] > 0) {
+                int index = buckets[level][--bucketSizes[level]];
+                if (levels[index] != level) {
+                    continue; // Already settled at a lower level
+                }
+                int px = index % width;
+                int py = index / width;
+                minX = Math.min(minX, px);
+                maxX = Math.max(maxX, px);
+                minY = Math.min(minY, py);
+                maxY = Math.max(maxY, py);
+
+                for (int n = 0; n < 4; n++) {
+                    int nx = px + (n == 0 ? 1 : n == 1 ? -1 : 0);
+                    int ny = py + (n == 2 ? 1 : n == 3 ? -1 : 0);
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int neighbour = ny * width + nx;
+                    if (levels[neighbour] <= level || (coverage != null && !coverage.contains(nx, ny))) {
+                        continue;
+                    }
+                    int joinLevel = Math.max(level,
+                            (int) Math.ceil(FillTool.colorDistance(pixels[neighbour], targetRGB)));
+                    if (joinLevel <= maxTolerance && joinLevel < levels[neighbour]) {
+                        levels[neighbour] = (short) joinLevel;
+                        push(buckets, bucketSizes, joinLevel, neighbour);
+                    }
+                }
+            }
+            buckets[level] = null;
+
+            // Accumulate the region bounds level by level
+            Rectangle previous = level > 0 ? boundsAtLevel[level - 1] : null;
+            Rectangle current = maxX >= 0 ? new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1) : null;
+            if (previous != null && current != null) {
+                current = previous.union(current);
+            } else if (current == null) {
+                current = previous;
+            }
+            boundsAtLevel[level] = current;
+        }
+
+        return new ToleranceMap(width, maxTolerance, levels, boundsAtLevel);
+    }
+
+    private static void push(int[][] buckets, int[] sizes, int level, int index) {
+        int[] bucket = buckets[level];
+        if (bucket == null) {
+            bucket = buckets[level] = new int[64];
+        } else if (sizes[level] == bucket.length) {
+            bucket = buckets[level] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[sizes[level]++] = index;
+    }
+
+    public int getMaxTolerance() {
+        return maxTolerance;
+    }
+
+    /**
+     * Returns the tolerance at which the pixel joins the region, or -1 if it never does.
+     */
+    public int levelAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y * width + x >= levels.length) {
+            return -1;
+        }
+        short level = levels[y * width + x];
+        return level == NEVER ? -1 : level;
+    }
+
+    /**
+     * Returns the bounds of the region at the given tolerance, or null if the region is empty.
+     */
+    public Rectangle getBounds(int tolerance) {
+        Rectangle bounds = boundsAtLevel[clamp(tolerance)];
+        return bounds != null ? new Rectangle(bounds) : null;
+    }
+
+    /**
+     * Returns the region flooded at the given tolerance. Only the region bounds are scanned.
+     */
+    public FloodSpans regionAt(int tolerance) {
+        int threshold = clamp(tolerance);
+        Rectangle bounds = boundsAtLevel[threshold];
+        if (bounds == null) {
+            return FloodSpans.fromRows(new Rectangle(), new int[1], new int[0]);
+        }
+
+        int[] rowStarts = new int[bounds.height + 1];
+        int[] runs = new int[64];
+        int runCount = 0;
+        for (int row = 0; row < bounds.height; row++) {
+            rowStarts[row] = runCount;
+            int offset = (bounds.y + row) * width;
+            int x = bounds.x;
+            int end = bounds.x + bounds.width;
+            while (x < end) {
+                while (x < end && levels[offset + x] > threshold) {
+                    x++;
+                }
+                int start = x;
+                while (x < end && levels[offset + x] <= threshold) {
+                    x++;
+                }
+                if (start < x) {
+                    if (runCount * 2 + 2 > runs.length) {
+                        runs = Arrays.copyOf(runs, runs.length * 2);
+                    }
+                    runs[runCount * 2] = start;
+                    runs[runCount * 2 + 1] = x;
+                    runCount++;
+                }
+            }
+        }
+        rowStarts[bounds.height] = runCount;
+
+        return FloodSpans.fromRows(new Rectangle(bounds), rowStarts, Arrays.copyOf(runs, runCount * 2));
+    }
+
+    private int clamp(int tolerance) {
+        return Math.max(0, Math.min(maxTolerance, tolerance));
+    }
+}
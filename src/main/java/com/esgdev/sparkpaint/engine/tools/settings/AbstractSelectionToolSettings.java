@@ -12,12 +12,26 @@ import java.awt.*;
  */
 public abstract class AbstractSelectionToolSettings extends BaseToolSettings {
     protected static final int ICON_SIZE = 16;
+    protected static final int DEFAULT_TRANSPARENCY_TOLERANCE = 0;
     protected final JCheckBox transparencyCheckbox;
+    protected final JSpinner transparencyToleranceSpinner;
 
     public AbstractSelectionToolSettings(DrawingCanvas canvas) {
         super(canvas);
         this.transparencyCheckbox = new JCheckBox("Transparent Background");
         this.transparencyCheckbox.setToolTipText("Make selection background transparent");
+        this.transparencyToleranceSpinner = new JSpinner(new SpinnerNumberModel(DEFAULT_TRANSPARENCY_TOLERANCE, 0, 255, 1));
+        this.transparencyToleranceSpinner.setToolTipText("How close to the background color a pixel must be to become transparent");
+    }
+
+    /**
+     * Resets the background transparency controls shared by all selection tools.
+     * Subclasses with settings of their own reset those and call this as well.
+     */
+    @Override
+    public void resetToDefaults() {
+        transparencyCheckbox.setSelected(false);
+        transparencyToleranceSpinner.setValue(DEFAULT_TRANSPARENCY_TOLERANCE);
     }
 
     /**
@@ -56,6 +70,31 @@ public abstract class AbstractSelectionToolSettings extends BaseToolSettings {
         return transformationPanel;
     }
 
+    /**
+     * Creates a row for rotating the selection by any angle.
+     *
+     * @return A panel with an angle spinner and a rotate button
+     */
+    protected JPanel createRotationPanel() {
+        JSpinner angleSpinner = new JSpinner(new SpinnerNumberModel(15.0, -360.0, 360.0, 1.0));
+        angleSpinner.setToolTipText("Rotation angle in degrees, clockwise");
+
+        JButton rotateButton = new JButton("Rotate");
+        rotateButton.setToolTipText("Rotate the selection by the angle");
+        rotateButton.addActionListener(e ->
+                canvas.rotateSelection(((Number) angleSpinner.getValue()).doubleValue()));
+
+        JPanel rotationPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        rotationPanel.add(new JLabel("Angle: "));
+        rotationPanel.add(angleSpinner);
+        rotationPanel.add(Box.createHorizontalStrut(5));
+        rotationPanel.add(rotateButton);
+        rotationPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        rotationPanel.setMaximumSize(new Dimension(250, 30));
+
+        return rotationPanel;
+    }
+
     /**
      * Creates the base settings panel including transformation controls.
      *
@@ -67,9 +106,18 @@ public abstract class AbstractSelectionToolSettings extends BaseToolSettings {
 
         panel.add(createTransformationPanel());
         panel.add(Box.createVerticalStrut(5));
+        panel.add(createRotationPanel());
+        panel.add(Box.createVerticalStrut(5));
 
         transparencyCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
         panel.add(transparencyCheckbox);
+
+        JPanel tolerancePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        tolerancePanel.add(new JLabel("Background Tolerance: "));
+        tolerancePanel.add(transparencyToleranceSpinner);
+        tolerancePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        tolerancePanel.setMaximumSize(new Dimension(250, 25));
+        panel.add(tolerancePanel);
         panel.add(Box.createVerticalGlue());
 
         return panel;
@@ -85,4 +133,15 @@ public abstract class AbstractSelectionToolSettings extends BaseToolSettings {
                 transparencyEnabled.accept(transparencyCheckbox.isSelected())
         );
     }
+
+    /**
+     * Configure transparency tolerance spinner with the appropriate listener
+     *
+     * @param transparencyTolerance callback to set the background tolerance
+     */
+    protected void configureTransparencyTolerance(java.util.function.IntConsumer transparencyTolerance) {
+        transparencyToleranceSpinner.addChangeListener(e ->
+                transparencyTolerance.accept((Integer) transparencyToleranceSpinner.getValue())
+        );
+    }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ public class BrushToolSettings extends BaseToolSettings {
     private boolean useAntiAliasing = true;  // Default value
     private JSlider blendStrengthSlider;
     private JLabel blendStrengthValueLabel;
+    private JSlider spacingSlider;
+    private JLabel spacingValueLabel;
 
     public BrushToolSettings(DrawingCanvas canvas) {
         super(canvas);
@@ -94,6 +96,25 @@ public class BrushToolSettings extends BaseToolSettings {
             applySettings();
         });
 
+        // Spacing slider, the distance between dabs as a percentage of the brush size
+        JLabel spacingLabel = new JLabel("Brush Spacing:");
+        spacingLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        spacingSlider = new JSlider(JSlider.HORIZONTAL, 1, BrushTool.MAX_SPACING, BrushTool.DEFAULT_SPACING);
+        spacingSlider.setMaximumSize(new Dimension(150, 25));
+        spacingSlider.setAlignmentX(Component.LEFT_ALIGNMENT);
+        spacingSlider.setPaintTicks(true);
+        spacingSlider.setMajorTickSpacing(25);
+        spacingSlider.setMinorTickSpacing(5);
+
+        spacingValueLabel = new JLabel(BrushTool.DEFAULT_SPACING + "%");
+        spacingValueLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        spacingSlider.addChangeListener(e -> {
+            spacingValueLabel.setText(spacingSlider.getValue() + "%");
+            applySettings();
+        });
+
         // Anti-aliasing checkbox
         antiAliasingCheckbox = new JCheckBox("Anti-aliasing", useAntiAliasing);
         antiAliasingCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -121,6 +142,12 @@ public class BrushToolSettings extends BaseToolSettings {
         panel.add(Box.createVerticalStrut(2));
         panel.add(blendStrengthValueLabel);
         panel.add(Box.createVerticalStrut(5));
+        panel.add(spacingLabel);
+        panel.add(Box.createVerticalStrut(2));
+        panel.add(spacingSlider);
+        panel.add(Box.createVerticalStrut(2));
+        panel.add(spacingValueLabel);
+        panel.add(Box.createVerticalStrut(5));
         panel.add(antiAliasingCheckbox);
         panel.add(Box.createVerticalGlue());
         resetToDefaults();
@@ -134,6 +161,7 @@ public class BrushToolSettings extends BaseToolSettings {
             brushTool.setShape((BrushTool.BrushShape) shapeComboBox.getSelectedItem());
             brushTool.setSprayDensity(sprayDensitySlider.getValue());
             brushTool.setMaxBlendStrength(blendStrengthSlider.getValue() / 100f);
+            brushTool.setSpacing(spacingSlider.getValue());
             useAntiAliasing = antiAliasingCheckbox.isSelected();
             brushTool.setAntiAliasing(useAntiAliasing);
         }
@@ -148,6 +176,8 @@ public class BrushToolSettings extends BaseToolSettings {
         sprayDensityValueLabel.setText(String.valueOf(BrushTool.DEFAULT_SPRAY_DENSITY));
         blendStrengthSlider.setValue(BrushTool.DEFAULT_BLEND_STRENGTH);
         blendStrengthValueLabel.setText(String.valueOf(BrushTool.DEFAULT_BLEND_STRENGTH));
+        spacingSlider.setValue(BrushTool.DEFAULT_SPACING);
+        spacingValueLabel.setText(BrushTool.DEFAULT_SPACING + "%");
         antiAliasingCheckbox.setSelected(true);
         applySettings();
     }
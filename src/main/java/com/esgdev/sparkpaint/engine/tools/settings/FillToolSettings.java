@@ -98,6 +98,7 @@ public class FillToolSettings extends BaseToolSettings {
      */
     private void updateSliderEnabledStates(FillTool.FillMode mode) {
         boolean usesSmartSettings = mode == FillTool.FillMode.SMART_FILL ||
+                mode == FillTool.FillMode.REPLACE_COLOR ||
                 mode == FillTool.FillMode.SMART_LINEAR ||
                 mode == FillTool.FillMode.SMART_CIRCULAR;
 
@@ -3,6 +3,7 @@ package com.esgdev.sparkpaint.engine.tools.settings;
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.tools.FilterBrushTool;
 import com.esgdev.sparkpaint.engine.tools.ToolManager;
+import com.esgdev.sparkpaint.engine.tools.renderers.FalloffMask;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,6 +15,9 @@ public class FilterBrushToolSettings extends BaseToolSettings {
     private final FilterBrushTool filterBrushTool;
     private JSlider strengthSlider;
     private JLabel strengthValueLabel;
+    private JComboBox<FalloffMask.Curve> falloffComboBox;
+    private JSlider hardnessSlider;
+    private JLabel hardnessValueLabel;
 
     public FilterBrushToolSettings(DrawingCanvas canvas) {
         super(canvas);
@@ -70,6 +74,32 @@ public class FilterBrushToolSettings extends BaseToolSettings {
             applySettings();
         });
 
+        // Falloff selector
+        JLabel falloffLabel = new JLabel("Falloff:");
+        falloffLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        falloffComboBox = new JComboBox<>(FalloffMask.Curve.values());
+        falloffComboBox.setMaximumSize(new Dimension(150, 25));
+        falloffComboBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        falloffComboBox.addActionListener(e -> applySettings());
+
+        // Hardness slider
+        JLabel hardnessLabel = new JLabel("Hardness:");
+        hardnessLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        hardnessSlider = new JSlider(JSlider.HORIZONTAL, 0, 100, FilterBrushTool.DEFAULT_HARDNESS);
+        hardnessSlider.setMaximumSize(new Dimension(150, 25));
+        hardnessSlider.setAlignmentX(Component.LEFT_ALIGNMENT);
+        hardnessSlider.setPaintTicks(true);
+        hardnessSlider.setMajorTickSpacing(25);
+        hardnessSlider.setMinorTickSpacing(5);
+
+        hardnessValueLabel = new JLabel(String.valueOf(FilterBrushTool.DEFAULT_HARDNESS));
+        hardnessValueLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        hardnessSlider.addChangeListener(e -> {
+            hardnessValueLabel.setText(String.valueOf(hardnessSlider.getValue()));
+            applySettings();
+        });
 
         panel.add(filterTypeLabel);
         panel.add(Box.createVerticalStrut(2));
@@ -86,6 +116,16 @@ public class FilterBrushToolSettings extends BaseToolSettings {
         panel.add(strengthSlider);
         panel.add(Box.createVerticalStrut(2));
         panel.add(strengthValueLabel);
+        panel.add(Box.createVerticalStrut(5));
+        panel.add(falloffLabel);
+        panel.add(Box.createVerticalStrut(2));
+        panel.add(falloffComboBox);
+        panel.add(Box.createVerticalStrut(5));
+        panel.add(hardnessLabel);
+        panel.add(Box.createVerticalStrut(2));
+        panel.add(hardnessSlider);
+        panel.add(Box.createVerticalStrut(2));
+        panel.add(hardnessValueLabel);
         panel.add(Box.createVerticalGlue());
 
         resetToDefaults();
@@ -98,6 +138,8 @@ public class FilterBrushToolSettings extends BaseToolSettings {
             filterBrushTool.setSize(sizeSlider.getValue());
             filterBrushTool.setFilterType((FilterBrushTool.FilterType) filterTypeComboBox.getSelectedItem());
             filterBrushTool.setStrength(strengthSlider.getValue() / 100f);
+            filterBrushTool.setFalloff((FalloffMask.Curve) falloffComboBox.getSelectedItem());
+            filterBrushTool.setHardness(hardnessSlider.getValue() / 100f);
         }
     }
 
@@ -108,6 +150,9 @@ public class FilterBrushToolSettings extends BaseToolSettings {
         filterTypeComboBox.setSelectedItem(FilterBrushTool.FilterType.BLUR);
         strengthSlider.setValue(FilterBrushTool.DEFAULT_STRENGTH);
         strengthValueLabel.setText(String.valueOf(FilterBrushTool.DEFAULT_STRENGTH));
+        falloffComboBox.setSelectedItem(FalloffMask.Curve.LINEAR);
+        hardnessSlider.setValue(FilterBrushTool.DEFAULT_HARDNESS);
+        hardnessValueLabel.setText(String.valueOf(FilterBrushTool.DEFAULT_HARDNESS));
         applySettings();
     }
 }
\ No newline at end of file
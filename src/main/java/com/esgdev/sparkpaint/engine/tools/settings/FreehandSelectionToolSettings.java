@@ -15,6 +15,7 @@ package com.esgdev.sparkpaint.engine.tools.settings;
             super(canvas);
             FreeHandSelectionTool freehandSelectionTool = (FreeHandSelectionTool) canvas.getTool(ToolManager.Tool.FREEHAND_SELECTION);
             configureTransparencyCheckbox(freehandSelectionTool::setTransparencyEnabled);
+            configureTransparencyTolerance(freehandSelectionTool::setTransparencyTolerance);
         }
 
         @Override
@@ -26,9 +27,4 @@ package com.esgdev.sparkpaint.engine.tools.settings;
         public void applySettings() {
             // Implementation if needed
         }
-
-        @Override
-        public void resetToDefaults() {
-            // Implementation if needed
-        }
     }
\ No newline at end of file
@@ -16,6 +16,7 @@ public class MagicWandSelectionToolSettings extends AbstractSelectionToolSetting
         MagicWandSelectionTool magicWandTool =
             (MagicWandSelectionTool) canvas.getTool(ToolManager.Tool.MAGIC_WAND_SELECTION);
         configureTransparencyCheckbox(magicWandTool::setTransparencyEnabled);
+        configureTransparencyTolerance(magicWandTool::setTransparencyTolerance);
     }
 
     @Override
@@ -71,7 +72,7 @@ public class MagicWandSelectionToolSettings extends AbstractSelectionToolSetting
     public void resetToDefaults() {
         toleranceSlider.setValue(32);
         toleranceValueLabel.setText("32");
-        transparencyCheckbox.setSelected(false);
+        super.resetToDefaults();
         applySettings();
     }
 }
\ No newline at end of file
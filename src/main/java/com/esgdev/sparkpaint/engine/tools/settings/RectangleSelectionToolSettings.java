@@ -15,6 +15,7 @@ public class RectangleSelectionToolSettings extends AbstractSelectionToolSetting
         super(canvas);
         RectangleSelectionTool rectangleSelectionTool = (RectangleSelectionTool) canvas.getTool(ToolManager.Tool.RECTANGLE_SELECTION);
         configureTransparencyCheckbox(rectangleSelectionTool::setTransparencyEnabled);
+        configureTransparencyTolerance(rectangleSelectionTool::setTransparencyTolerance);
     }
 
     @Override
@@ -26,9 +27,4 @@ public class RectangleSelectionToolSettings extends AbstractSelectionToolSetting
     public void applySettings() {
         // Implementation if needed
     }
-
-    @Override
-    public void resetToDefaults() {
-        // Implementation if needed
-    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.esgdev.sparkpaint.io;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
 import com.esgdev.sparkpaint.engine.selection.Selection;
+import com.esgdev.sparkpaint.engine.selection.SelectionMask;
 import com.esgdev.sparkpaint.engine.tools.DrawingTool;
 import com.esgdev.sparkpaint.engine.tools.ToolManager;
 
@@ -92,6 +93,7 @@ public class ClipboardManager implements ClipboardManagement {
             Selection selection = new Selection(selectionRectangle, pastedImage);
             selection.setActive(true);
             selection.setPath(path);
+            selection.setMask(SelectionMask.fromRectangle(selectionRectangle));
             canvas.setSelection(selection);
 
             canvas.repaint();
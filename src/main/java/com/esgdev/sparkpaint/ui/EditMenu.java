@@ -12,6 +12,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 /**
  * EditMenu is a custom JMenu that provides various editing options such as Cut, Copy, Paste,
@@ -91,6 +92,9 @@ public class EditMenu extends JMenu implements UndoRedoChangeListener, Clipboard
         deleteItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0));
         add(deleteItem);
 
+        // Add Modify Selection submenu
+        add(getModifySelectionMenu(mainFrame));
+
         // Register for clipboard changes
         canvas.addClipboardChangeListener(this);
 
@@ -173,6 +177,52 @@ public class EditMenu extends JMenu implements UndoRedoChangeListener, Clipboard
         SwingUtilities.invokeLater(() -> updateClipboardMenuItems(canCopy, canPaste));
     }
 
+    /**
+     * Creates a submenu with commands that reshape the current selection.
+     *
+     * @param mainFrame The main frame of the application.
+     * @return A JMenu with the Grow, Shrink, Border and Feather items.
+     */
+    private JMenu getModifySelectionMenu(MainFrame mainFrame) {
+        JMenu modifyMenu = new JMenu("Modify Selection");
+        modifyMenu.setMnemonic('M');
+
+        JMenuItem growItem = new JMenuItem("Grow...");
+        growItem.addActionListener(e -> promptRadius(mainFrame, "Grow Selection", 4, canvas::growSelection));
+        modifyMenu.add(growItem);
+
+        JMenuItem shrinkItem = new JMenuItem("Shrink...");
+        shrinkItem.addActionListener(e -> promptRadius(mainFrame, "Shrink Selection", 4, canvas::shrinkSelection));
+        modifyMenu.add(shrinkItem);
+
+        JMenuItem borderItem = new JMenuItem("Border...");
+        borderItem.addActionListener(e -> promptRadius(mainFrame, "Border Selection", 4, canvas::borderSelection));
+        modifyMenu.add(borderItem);
+
+        JMenuItem featherItem = new JMenuItem("Feather...");
+        featherItem.addActionListener(e -> promptRadius(mainFrame, "Feather Selection", 8, canvas::featherSelection));
+        modifyMenu.add(featherItem);
+
+        return modifyMenu;
+    }
+
+    /**
+     * Asks for a radius in pixels and passes it to the action if the dialog is confirmed.
+     */
+    private static void promptRadius(MainFrame mainFrame, String title, int initialValue,
+                                     IntConsumer action) {
+        JSpinner radiusSpinner = new JSpinner(new SpinnerNumberModel(initialValue, 1, 500, 1));
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        panel.add(new JLabel("Radius (pixels):"));
+        panel.add(radiusSpinner);
+
+        int result = JOptionPane.showConfirmDialog(mainFrame, panel, title,
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result == JOptionPane.OK_OPTION) {
+            action.accept((Integer) radiusSpinner.getValue());
+        }
+    }
+
     /**
      * Creates a menu item to restore the default color palette.
      *
@@ -15,12 +15,15 @@ public class PreviewPanel extends JPanel implements CanvasChangeListener {
     private static final int PREVIEW_HEIGHT = 150;
     private static final Color VIEWPORT_COLOR = new Color(0, 0, 255, 32);
     private static final Color VIEWPORT_BORDER_COLOR = new Color(0, 0, 255, 128);
+    // Scaling the whole picture down is the costly part, so a burst of edits refreshes it once
+    private static final int UPDATE_DELAY_MS = 100;
 
     private final DrawingCanvas canvas;
     private final JScrollPane scrollPane;
     private BufferedImage previewImage;
     private final Rectangle viewportRect = new Rectangle();
     private boolean isDragging = false;
+    private final Timer updateTimer;
 
     public PreviewPanel(DrawingCanvas canvas, JScrollPane scrollPane) {
         this.canvas = canvas;
@@ -49,23 +52,32 @@ public class PreviewPanel extends JPanel implements CanvasChangeListener {
                 }
             }
         });
+        updateTimer = new Timer(UPDATE_DELAY_MS, e -> updatePreview());
+        updateTimer.setRepeats(false);
         canvas.addCanvasChangeListener(this);
     }
 
     public void updatePreview() {
-        // Get all visible layers
-        BufferedImage canvasContent = createCompositeImage();
+        // The cached composite of the visible layers only redraws what changed since it was last read
+        BufferedImage canvasContent = canvas.getCompositeImage();
+        if (canvasContent == null) {
+            return;
+        }
 
         // Scale to preview size
         float scaleX = (float) PREVIEW_WIDTH / canvasContent.getWidth();
         float scaleY = (float) PREVIEW_HEIGHT / canvasContent.getHeight();
         float scale = Math.min(scaleX, scaleY);
 
-        int scaledWidth = (int) (canvasContent.getWidth() * scale);
-        int scaledHeight = (int) (canvasContent.getHeight() * scale);
+        int scaledWidth = Math.max(1, (int) (canvasContent.getWidth() * scale));
+        int scaledHeight = Math.max(1, (int) (canvasContent.getHeight() * scale));
 
-        previewImage = new BufferedImage(scaledWidth, scaledHeight, BufferedImage.TYPE_INT_ARGB);
+        if (previewImage == null || previewImage.getWidth() != scaledWidth || previewImage.getHeight() != scaledHeight) {
+            previewImage = new BufferedImage(scaledWidth, scaledHeight, BufferedImage.TYPE_INT_ARGB);
+        }
         Graphics2D g2d = previewImage.createGraphics();
+        g2d.setColor(canvas.getCanvasBackground());
+        g2d.fillRect(0, 0, scaledWidth, scaledHeight);
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
         g2d.drawImage(canvasContent, 0, 0, scaledWidth, scaledHeight, null);
         g2d.dispose();
@@ -74,28 +86,6 @@ public class PreviewPanel extends JPanel implements CanvasChangeListener {
         repaint();
     }
 
-    private BufferedImage createCompositeImage() {
-        int width = canvas.getLayers().get(0).getImage().getWidth();
-        int height = canvas.getLayers().get(0).getImage().getHeight();
-
-        BufferedImage composite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = composite.createGraphics();
-
-        // Draw background
-        g2d.setColor(canvas.getCanvasBackground());
-        g2d.fillRect(0, 0, width, height);
-
-        // Draw all visible layers
-        for (int i = 0; i < canvas.getLayerCount(); i++) {
-            if (canvas.getLayers().get(i).isVisible()) {
-                g2d.drawImage(canvas.getLayers().get(i).getImage(), 0, 0, null);
-            }
-        }
-
-        g2d.dispose();
-        return composite;
-    }
-
     private void updateViewportRect() {
         if (previewImage == null) return;
 
@@ -184,6 +174,8 @@ public class PreviewPanel extends JPanel implements CanvasChangeListener {
 
     @Override
     public void onCanvasChanged() {
-        updatePreview();
+        if (!updateTimer.isRunning()) {
+            updateTimer.start();
+        }
     }
 }
\ No newline at end of file
@@ -188,6 +188,7 @@ public class LayerPanel extends JPanel implements LayerChangeListener {
             statusMessageHandler.setStatusMessage("Layer visibility toggled for " + layer.getName());
             layerList.repaint();
             canvas.repaint();
+            canvas.notifyCanvasChanged();
         }
     }
 
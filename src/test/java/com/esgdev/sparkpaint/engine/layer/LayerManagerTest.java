@@ -413,4 +413,39 @@ public class LayerManagerTest {
         layerManager.addNewLayer();
         assertEquals(2, layerManager.getLayerCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompositeImageIsCachedUntilInvalidated() {
+        layerManager.addNewLayer();
+        layerManager.getLayers().get(0).getImage().setRGB(5, 5, 0xFFFF0000);
+        layerManager.getLayers().get(1).getImage().setRGB(6, 6, 0xFF00FF00);
+
+        BufferedImage composite = layerManager.getCompositeImage();
+        assertEquals(TEST_WIDTH, composite.getWidth());
+        assertEquals(TEST_HEIGHT, composite.getHeight());
+        assertEquals(0xFFFF0000, composite.getRGB(5, 5));
+        assertEquals(0xFF00FF00, composite.getRGB(6, 6));
+
+        // Pixel edits are not seen until the composite is invalidated
+        layerManager.getLayers().get(1).getImage().setRGB(7, 7, 0xFF0000FF);
+        assertSame(composite, layerManager.getCompositeImage());
+        assertEquals(0, composite.getRGB(7, 7));
+
+        layerManager.invalidateComposite(new Rectangle(7, 7, 1, 1));
+        assertEquals(0xFF0000FF, layerManager.getCompositeImage().getRGB(7, 7));
+    }
+
+    @Test
+    public void testCompositeImageFollowsVisibilityAndStackChanges() {
+        layerManager.addNewLayer();
+        layerManager.getLayers().get(1).getImage().setRGB(3, 3, 0xFF00FF00);
+        assertEquals(0xFF00FF00, layerManager.getCompositeImage().getRGB(3, 3));
+
+        layerManager.getLayers().get(1).setVisible(false);
+        assertEquals(0, layerManager.getCompositeImage().getRGB(3, 3));
+
+        layerManager.getLayers().get(1).setVisible(true);
+        layerManager.deleteLayer(1);
+        assertEquals(0, layerManager.getCompositeImage().getRGB(3, 3));
+    }
+}
@@ -0,0 +1,102 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DistanceTransformTest {
+
+    @Test
+    public void testSquaredMatchesBruteForce() {
+        int width = 23;
+        int height = 17;
+        boolean[] features = new boolean[width * height];
+        Random random = new Random(7);
+        for (int i = 0; i < features.length; i++) {
+            features[i] = random.nextInt(12) == 0;
+        }
+
+        float[] distances = DistanceTransform.squared(features, width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int best = Integer.MAX_VALUE;
+                for (int i = 0; i < features.length; i++) {
+                    if (features[i]) {
+                        int dx = x - i % width;
+                        int dy = y - i / width;
+                        best = Math.min(best, dx * dx + dy * dy);
+                    }
+                }
+                assertEquals("Distance at " + x + "," + y, best, distances[y * width + x], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testGrowSinglePixelIsDisc() {
+        SelectionMask mask = new SelectionMask(new Rectangle(50, 50, 1, 1));
+        mask.set(50, 50);
+
+        SelectionMask grown = DistanceTransform.grow(mask, 3, null);
+
+        assertEquals("Frame should extend by the radius", new Rectangle(47, 47, 7, 7), grown.getBounds());
+        assertTrue(grown.contains(53, 50));
+        assertTrue(grown.contains(52, 52));
+        assertFalse("Corner is further than the radius", grown.contains(53, 53));
+        // Lattice points within a circle of radius 3
+        assertEquals(29, grown.count());
+    }
+
+    @Test
+    public void testGrowIsClippedToLimit() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(0, 0, 10, 10));
+
+        SelectionMask grown = DistanceTransform.grow(mask, 5, new Rectangle(0, 0, 100, 100));
+
+        assertEquals(new Rectangle(0, 0, 15, 15), grown.getBounds());
+        assertTrue(grown.contains(14, 5));
+    }
+
+    @Test
+    public void testShrinkRectangle() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(10, 10, 20, 10));
+
+        SelectionMask shrunk = DistanceTransform.shrink(mask, 2);
+
+        assertEquals(new Rectangle(12, 12, 16, 6), shrunk.getBounds());
+        assertEquals(16 * 6, shrunk.count());
+    }
+
+    @Test
+    public void testShrinkBeyondSizeIsEmpty() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(0, 0, 6, 6));
+
+        assertTrue(DistanceTransform.shrink(mask, 3).isEmpty());
+    }
+
+    @Test
+    public void testBorderStraddlesEdge() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(20, 20, 30, 30));
+
+        SelectionMask border = DistanceTransform.border(mask, 2, null);
+
+        assertTrue("Pixel just outside the edge", border.contains(19, 30));
+        assertTrue("Pixel just inside the edge", border.contains(20, 30));
+        assertFalse("Pixel deep inside", border.contains(35, 35));
+        assertFalse("Pixel far outside", border.contains(10, 30));
+    }
+
+    @Test
+    public void testInsideDistances() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(5, 5, 9, 9));
+
+        float[] distances = DistanceTransform.insideDistances(mask);
+
+        assertEquals("Edge pixel", 1.0f, distances[0 * 9 + 4], 1e-6f);
+        assertEquals("Centre pixel", 5.0f, distances[4 * 9 + 4], 1e-6f);
+    }
+}
@@ -0,0 +1,61 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PathSimplifierTest {
+
+    @Test
+    public void testCollinearPointsAreDropped() {
+        List<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 100; x++) {
+            points.add(new Point(x, 2 * x));
+        }
+
+        List<Point> simplified = PathSimplifier.simplify(points, 0.5);
+
+        assertEquals(Arrays.asList(new Point(0, 0), new Point(100, 200)), simplified);
+    }
+
+    @Test
+    public void testCornersAreKept() {
+        List<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 50; x++) {
+            points.add(new Point(x, 0));
+        }
+        for (int y = 1; y <= 50; y++) {
+            points.add(new Point(50, y));
+        }
+
+        List<Point> simplified = PathSimplifier.simplify(points, 1.0);
+
+        assertEquals(Arrays.asList(new Point(0, 0), new Point(50, 0), new Point(50, 50)), simplified);
+    }
+
+    @Test
+    public void testSmallWobbleWithinTolerance() {
+        List<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 40; x++) {
+            points.add(new Point(x, x % 2));
+        }
+
+        assertEquals("Wobble within tolerance should be removed", 2, PathSimplifier.simplify(points, 1.5).size());
+        assertTrue("Wobble above tolerance should be kept", PathSimplifier.simplify(points, 0.25).size() > 2);
+    }
+
+    @Test
+    public void testShortInputIsCopied() {
+        List<Point> points = Arrays.asList(new Point(1, 1), new Point(2, 2));
+
+        List<Point> simplified = PathSimplifier.simplify(points, 1.0);
+
+        assertEquals(points, simplified);
+        assertNotSame(points, simplified);
+    }
+}
@@ -1,17 +1,15 @@
 package com.esgdev.sparkpaint.engine.selection;
 
 import com.esgdev.sparkpaint.engine.DrawingCanvas;
-import com.esgdev.sparkpaint.engine.layer.Layer;
 import com.esgdev.sparkpaint.engine.tools.ToolManager;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -59,13 +57,10 @@ public class SelectionManagerTest {
     public void testSelectAll() {
         // Setup mocks
         BufferedImage mockImage = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
-        Layer mockLayer = new Layer(mockImage);
-        List<Layer> layers = new ArrayList<>();
-        layers.add(mockLayer);
 
         // Mock the canvas methods directly instead of accessing layer manager
         when(mockCanvas.getCurrentLayerImage()).thenReturn(mockImage);
-        when(mockCanvas.getLayers()).thenReturn(layers);
+        when(mockCanvas.getCompositeImage()).thenReturn(mockImage);
 
         // Execute
         selectionManager.selectAll();
@@ -119,6 +114,81 @@ public class SelectionManagerTest {
         verify(mockCanvas).repaint();
     }
 
+    @Test
+    public void testDeleteSelectionAreaClearsOnlySelectedPixels() {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 100, 100);
+        g2d.dispose();
+
+        Rectangle bounds = new Rectangle(10, 10, 50, 50);
+        when(mockCanvas.getCurrentLayerImage()).thenReturn(image);
+        when(mockSelection.getBounds()).thenReturn(bounds);
+        when(mockSelection.getPath()).thenReturn(new GeneralPath(bounds));
+        selectionManager.setSelection(mockSelection);
+
+        selectionManager.deleteSelectionAreaFromCurrentLayer();
+
+        assertEquals("Pixel inside the selection should be cleared", 0, image.getRGB(10, 10));
+        assertEquals("Pixel inside the selection should be cleared", 0, image.getRGB(59, 59));
+        assertEquals("Pixel outside the selection should be kept", Color.RED.getRGB(), image.getRGB(9, 10));
+        assertEquals("Pixel outside the selection should be kept", Color.RED.getRGB(), image.getRGB(60, 59));
+    }
+
+    @Test
+    public void testGrowSelectionRebuildsContent() {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 100, 100);
+        g2d.dispose();
+        when(mockCanvas.getCurrentLayerImage()).thenReturn(image);
+        when(mockCanvas.getCompositeImage()).thenReturn(image);
+
+        selectionManager.setSelection(new Selection(new Rectangle(10, 10, 20, 20), null));
+        selectionManager.growSelection(5);
+
+        Selection grown = selectionManager.getSelection();
+        assertEquals(new Rectangle(5, 5, 30, 30), grown.getBounds());
+        assertTrue(grown.contains(new Point(7, 20)));
+        assertFalse("Grown corners are rounded", grown.contains(new Point(5, 5)));
+        assertEquals(Color.RED.getRGB(), grown.getContent().getRGB(2, 15));
+        assertEquals("Unselected corner stays empty", 0, grown.getContent().getRGB(0, 0));
+    }
+
+    @Test
+    public void testFeatherSelectionFadesEdge() {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 100, 100);
+        g2d.dispose();
+        when(mockCanvas.getCurrentLayerImage()).thenReturn(image);
+        when(mockCanvas.getCompositeImage()).thenReturn(image);
+
+        selectionManager.setSelection(new Selection(new Rectangle(10, 10, 40, 40), null));
+        selectionManager.featherSelection(10);
+
+        BufferedImage content = selectionManager.getSelection().getContent();
+        int edgeAlpha = content.getRGB(0, 20) >>> 24;
+        int centreAlpha = content.getRGB(20, 20) >>> 24;
+        assertTrue("Edge should be faded", edgeAlpha < 64);
+        assertEquals("Centre should be opaque", 255, centreAlpha);
+    }
+
+    @Test
+    public void testModifySelectionIgnoresActiveSelection() {
+        Selection selection = new Selection(new Rectangle(10, 10, 20, 20), null);
+        selection.setActive(true);
+        selectionManager.setSelection(selection);
+
+        selectionManager.shrinkSelection(2);
+
+        assertSame(selection, selectionManager.getSelection());
+        assertEquals(new Rectangle(10, 10, 20, 20), selection.getBounds());
+    }
+
     @Test
     public void testGetDrawingGraphicsNoSelection() {
         // Setup
@@ -190,6 +260,20 @@ public class SelectionManagerTest {
         verify(mockCanvas).repaint();
     }
 
+    @Test
+    public void testRotateSelectionOffQuarterTurnIsTransformed() {
+        BufferedImage content = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        when(mockSelection.getContent()).thenReturn(content);
+        when(mockSelection.isActive()).thenReturn(true);
+        when(mockSelection.getBounds()).thenReturn(new Rectangle(0, 0, 50, 50));
+        selectionManager.setSelection(mockSelection);
+
+        selectionManager.rotateSelection(45);
+
+        verify(mockSelection, never()).rotate(anyInt());
+        verify(mockSelection).transform(any(AffineTransform.class), eq(TransformResampler.Interpolation.NEAREST));
+    }
+
     @Test
     public void testRotateSelectionWhenNull() {
         selectionManager.rotateSelection(90); // Should not throw
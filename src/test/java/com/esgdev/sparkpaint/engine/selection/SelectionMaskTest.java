@@ -0,0 +1,177 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+
+import static org.junit.Assert.*;
+
+public class SelectionMaskTest {
+
+    @Test
+    public void testFromRectangle() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(10, 20, 70, 5));
+
+        assertEquals("Frame should match the rectangle", new Rectangle(10, 20, 70, 5), mask.getBounds());
+        assertEquals("Every pixel should be selected", 70 * 5, mask.count());
+        assertTrue("Top-left pixel should be selected", mask.contains(10, 20));
+        assertTrue("Bottom-right pixel should be selected", mask.contains(79, 24));
+        assertFalse("Pixel right of the rectangle should not be selected", mask.contains(80, 24));
+        assertFalse("Pixel above the rectangle should not be selected", mask.contains(10, 19));
+    }
+
+    @Test
+    public void testFromShapeMatchesShape() {
+        Ellipse2D ellipse = new Ellipse2D.Double(5, 5, 100, 60);
+        SelectionMask mask = SelectionMask.fromShape(ellipse);
+
+        assertEquals("Frame should match the shape bounds", ellipse.getBounds(), mask.getBounds());
+        assertTrue("Centre should be selected", mask.contains(55, 35));
+        assertFalse("Corner of the bounds should not be selected", mask.contains(5, 5));
+    }
+
+    @Test
+    public void testSetSpanAcrossWords() {
+        SelectionMask mask = new SelectionMask(new Rectangle(-3, 0, 200, 2));
+        mask.setSpan(1, 60, 140);
+
+        assertEquals("Span should select 80 pixels", 80, mask.count());
+        assertFalse("Pixel before span should not be selected", mask.contains(59, 1));
+        assertTrue("First span pixel should be selected", mask.contains(60, 1));
+        assertTrue("Last span pixel should be selected", mask.contains(139, 1));
+        assertFalse("Pixel after span should not be selected", mask.contains(140, 1));
+        assertFalse("Other row should not be selected", mask.contains(100, 0));
+    }
+
+    @Test
+    public void testTranslate() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(0, 0, 10, 10));
+        int version = mask.getVersion();
+
+        mask.translate(5, 7);
+
+        assertEquals("Frame should move", new Rectangle(5, 7, 10, 10), mask.getBounds());
+        assertTrue("Moved pixel should be selected", mask.contains(14, 16));
+        assertFalse("Old origin should not be selected", mask.contains(0, 0));
+        assertNotEquals("Version should change", version, mask.getVersion());
+    }
+
+    @Test
+    public void testOrWithOffsetFrames() {
+        SelectionMask a = SelectionMask.fromRectangle(new Rectangle(0, 0, 70, 10));
+        SelectionMask b = SelectionMask.fromRectangle(new Rectangle(65, 5, 70, 10));
+
+        SelectionMask union = a.or(b);
+
+        assertEquals("Frame should be the union of frames", new Rectangle(0, 0, 135, 15), union.getBounds());
+        assertEquals("Union count should exclude the overlap once", 700 + 700 - 5 * 5, union.count());
+        assertTrue(union.contains(0, 0));
+        assertTrue(union.contains(134, 14));
+        assertFalse(union.contains(134, 0));
+    }
+
+    @Test
+    public void testAndAndNot() {
+        SelectionMask a = SelectionMask.fromRectangle(new Rectangle(0, 0, 100, 100));
+        SelectionMask b = SelectionMask.fromRectangle(new Rectangle(50, 50, 100, 100));
+
+        SelectionMask intersection = a.and(b);
+        assertEquals("Intersection frame", new Rectangle(50, 50, 50, 50), intersection.getBounds());
+        assertEquals("Intersection count", 2500, intersection.count());
+
+        SelectionMask difference = a.andNot(b);
+        assertEquals("Difference keeps the first frame", a.getBounds(), difference.getBounds());
+        assertEquals("Difference count", 10000 - 2500, difference.count());
+        assertTrue(difference.contains(49, 99));
+        assertFalse(difference.contains(50, 50));
+    }
+
+    @Test
+    public void testAndWithDisjointMasksIsEmpty() {
+        SelectionMask a = SelectionMask.fromRectangle(new Rectangle(0, 0, 10, 10));
+        SelectionMask b = SelectionMask.fromRectangle(new Rectangle(20, 20, 10, 10));
+
+        assertTrue("Disjoint intersection should be empty", a.and(b).isEmpty());
+    }
+
+    @Test
+    public void testTrim() {
+        SelectionMask mask = new SelectionMask(new Rectangle(0, 0, 300, 50));
+        mask.setSpan(10, 100, 180);
+        mask.setSpan(20, 90, 95);
+
+        SelectionMask trimmed = mask.trim();
+
+        assertEquals("Frame should fit the selected pixels", new Rectangle(90, 10, 90, 11), trimmed.getBounds());
+        assertEquals("Trim should keep every pixel", mask.count(), trimmed.count());
+    }
+
+    @Test
+    public void testToPathCoversSelectedPixels() {
+        SelectionMask mask = new SelectionMask(new Rectangle(0, 0, 20, 20));
+        for (int y = 2; y < 8; y++) {
+            mask.setSpan(y, 2, 10);
+        }
+        mask.setSpan(8, 4, 6);
+
+        GeneralPath path = mask.toPath();
+
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                assertEquals("Path and mask should agree at " + x + "," + y,
+                        mask.contains(x, y), path.contains(x + 0.5, y + 0.5));
+            }
+        }
+        assertSame("Path should be cached while the mask is unchanged", path, mask.toPath());
+    }
+
+    @Test
+    public void testToPathKeepsHoles() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(10, 10, 30, 30));
+        SelectionMask ring = mask.andNot(SelectionMask.fromRectangle(new Rectangle(20, 20, 10, 10)));
+
+        GeneralPath path = ring.toPath();
+
+        assertTrue("Ring should be inside the path", path.contains(12.5, 12.5));
+        assertFalse("Hole should be outside the path", path.contains(25.5, 25.5));
+        assertEquals("Path bounds should match the pixels", new Rectangle(10, 10, 30, 30), path.getBounds());
+    }
+
+    @Test
+    public void testToPathSeparatesDiagonalPixels() {
+        SelectionMask mask = new SelectionMask(new Rectangle(0, 0, 4, 4));
+        mask.set(1, 1);
+        mask.set(2, 2);
+
+        GeneralPath path = mask.toPath();
+
+        assertTrue(path.contains(1.5, 1.5));
+        assertTrue(path.contains(2.5, 2.5));
+        assertFalse(path.contains(2.5, 1.5));
+        assertFalse(path.contains(1.5, 2.5));
+    }
+
+    @Test
+    public void testToPathRebuiltAfterChange() {
+        SelectionMask mask = new SelectionMask(new Rectangle(0, 0, 5, 10));
+        mask.setSpan(0, 0, 5);
+        GeneralPath before = mask.toPath();
+
+        mask.setSpan(6, 0, 5);
+
+        assertNotSame("Path should be rebuilt after the mask changes", before, mask.toPath());
+        assertTrue(mask.toPath().contains(2.5, 6.5));
+    }
+
+    @Test
+    public void testToPathFollowsTranslate() {
+        SelectionMask mask = SelectionMask.fromRectangle(new Rectangle(0, 0, 5, 5));
+        mask.toPath();
+
+        mask.translate(10, 0);
+
+        assertEquals(new Rectangle(10, 0, 5, 5), mask.toPath().getBounds());
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Before;
 import static org.junit.Assert.*;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
 
@@ -108,4 +109,167 @@ public class SelectionTest {
         rectangleSelection.setTransparent(true);
         assertTrue("Selection should be transparent after setting", rectangleSelection.isTransparent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSetContentKeysOutBackground() {
+        BufferedImage content = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = content.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 10, 10);
+        g2d.setColor(new Color(250, 250, 250));
+        g2d.fillRect(0, 0, 5, 10);
+        g2d.setColor(Color.BLUE);
+        g2d.fillRect(4, 4, 2, 2);
+        g2d.dispose();
+
+        rectangleSelection.setTransparent(true);
+        rectangleSelection.setContent(content, Color.WHITE);
+        BufferedImage exact = rectangleSelection.getContent();
+        assertEquals("Exact background should be transparent", 0, exact.getRGB(8, 8) >>> 24);
+        assertEquals("Near background should be kept without tolerance", 255, exact.getRGB(1, 1) >>> 24);
+        assertEquals("Other colors should be kept", Color.BLUE.getRGB(), exact.getRGB(4, 4));
+
+        rectangleSelection.setTransparencyTolerance(10);
+        rectangleSelection.setContent(content, Color.WHITE);
+        BufferedImage tolerant = rectangleSelection.getContent();
+        assertEquals("Near background should be transparent with tolerance", 0, tolerant.getRGB(1, 1) >>> 24);
+        assertEquals("Other colors should be kept", Color.BLUE.getRGB(), tolerant.getRGB(5, 5));
+    }
+
+    @Test
+    public void testSetContentKeysOutLargeContentInParallel() {
+        BufferedImage content = new BufferedImage(1024, 600, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = content.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 1024, 600);
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 300, 1024, 300);
+        g2d.dispose();
+
+        rectangleSelection.setTransparent(true);
+        rectangleSelection.setContent(content, Color.WHITE);
+
+        BufferedImage keyed = rectangleSelection.getContent();
+        assertEquals(0, keyed.getRGB(1000, 10) >>> 24);
+        assertEquals(Color.RED.getRGB(), keyed.getRGB(1000, 599));
+    }
+
+    @Test
+    public void testRotateQuarterTurnMovesPixelsExactly() {
+        BufferedImage content = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        content.setRGB(0, 0, 0xFF0000FF);
+        content.setRGB(39, 19, 0xFF00FF00);
+        Selection selection = new Selection(SelectionMask.fromRectangle(new Rectangle(10, 10, 40, 20)), content);
+
+        selection.rotate(90);
+
+        assertEquals("Centre should stay in place", new Rectangle(20, 0, 20, 40), selection.getBounds());
+        BufferedImage rotated = selection.getContent();
+        assertEquals(20, rotated.getWidth());
+        assertEquals(40, rotated.getHeight());
+        assertEquals("Top-left should move to top-right", 0xFF0000FF, rotated.getRGB(19, 0));
+        assertEquals("Bottom-right should move to bottom-left", 0xFF00FF00, rotated.getRGB(0, 39));
+        assertEquals(20 * 40, selection.getMask().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRotateRejectsOffQuarterTurns() {
+        Selection selection = new Selection(SelectionMask.fromRectangle(new Rectangle(0, 0, 10, 10)),
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+
+        selection.rotate(45);
+    }
+
+    @Test
+    public void testRotatePathSelectionQuarterTurn() {
+        Selection selection = new Selection(new GeneralPath(new Rectangle(0, 0, 10, 4)), new BufferedImage(10, 4, BufferedImage.TYPE_INT_ARGB));
+        selection.setMask(null);
+
+        selection.rotate(-90);
+
+        assertEquals(new Rectangle(3, -3, 4, 10), selection.getPath().getBounds());
+    }
+
+    @Test
+    public void testTransformArbitraryAngle() {
+        BufferedImage content = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = content.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 20, 20);
+        g2d.dispose();
+        Selection selection = new Selection(SelectionMask.fromRectangle(new Rectangle(0, 0, 20, 20)), content);
+
+        selection.transform(AffineTransform.getRotateInstance(Math.toRadians(45)),
+                TransformResampler.Interpolation.BILINEAR);
+
+        Rectangle bounds = selection.getBounds();
+        assertTrue("Rotated square should be wider", bounds.width > 26);
+        assertEquals(bounds.width, selection.getContent().getWidth());
+        int centre = selection.getContent().getRGB(bounds.width / 2, bounds.height / 2);
+        assertEquals("Centre should stay red", Color.RED.getRGB(), centre);
+        assertEquals("Corner should be transparent", 0, selection.getContent().getRGB(0, 0) >>> 24);
+        assertTrue(selection.contains(new Point(bounds.x + bounds.width / 2, bounds.y + 1)));
+    }
+
+    @Test
+    public void testOutlineDashPhaseSwapsColors() {
+        Selection selection = new Selection(SelectionMask.fromRectangle(new Rectangle(2, 2, 40, 20)), null);
+        BufferedImage first = new BufferedImage(50, 30, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage second = new BufferedImage(50, 30, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = first.createGraphics();
+        selection.drawSelectionOutline(g2d, 1.0, 0);
+        g2d.dispose();
+        g2d = second.createGraphics();
+        selection.drawSelectionOutline(g2d, 1.0, Selection.OUTLINE_DASH_PERIOD / 2);
+        g2d.dispose();
+
+        int top = first.getRGB(4, 2);
+        assertNotEquals("Outline should be drawn", 0, top >>> 24);
+        assertNotEquals("Shifting by half a period should swap dash colors", top, second.getRGB(4, 2));
+    }
+
+    @Test
+    public void testOutlineFollowsPathEditedInPlace() {
+        GeneralPath path = new GeneralPath(new Rectangle(2, 2, 10, 10));
+        Selection selection = new Selection(path, null);
+        BufferedImage before = new BufferedImage(50, 30, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage after = new BufferedImage(50, 30, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = before.createGraphics();
+        selection.drawSelectionOutline(g2d, 1.0, 0);
+        g2d.dispose();
+        path.reset();
+        path.append(new Rectangle(2, 2, 40, 20), false);
+        selection.pathEdited();
+        g2d = after.createGraphics();
+        selection.drawSelectionOutline(g2d, 1.0, 0);
+        g2d.dispose();
+
+        assertEquals("Old outline should only cover the small rectangle", 0, before.getRGB(42, 3) >>> 24);
+        assertNotEquals("Outline should follow the edited path", 0, after.getRGB(42, 3) >>> 24);
+    }
+
+    @Test
+    public void testTranslateMovesPathAndMask() {
+        rectangleSelection.translate(5, -5);
+
+        assertEquals("Bounds should move", new Rectangle(15, 5, 80, 80), rectangleSelection.getBounds());
+        assertEquals("Path should move", new Rectangle(15, 5, 80, 80), rectangleSelection.getPath().getBounds());
+        assertTrue("Moved area should be selected", rectangleSelection.contains(new Point(94, 84)));
+        assertFalse("Old corner should not be selected", rectangleSelection.contains(new Point(10, 88)));
+    }
+
+    @Test
+    public void testMaskSelectionBuildsPath() {
+        Selection maskSelection = new Selection(SelectionMask.fromRectangle(testRect), testImage);
+
+        assertTrue("Mask selection should have an outline", maskSelection.hasOutline());
+        assertEquals("Bounds should come from the mask", testRect, maskSelection.getBounds());
+        assertEquals("Path should be derived from the mask", testRect, maskSelection.getPath().getBounds());
+
+        maskSelection.clearOutline();
+        assertFalse("Outline should be gone after clearOutline", maskSelection.hasOutline());
+        assertNull("Mask should be gone after clearOutline", maskSelection.getMask());
+    }
+}
@@ -0,0 +1,64 @@
+package com.esgdev.sparkpaint.engine.selection;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class TransformResamplerTest {
+
+    private static BufferedImage createPattern() {
+        BufferedImage image = new BufferedImage(16, 12, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 12; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 15 << 16) | (y * 20 << 8) | ((x + y) * 7));
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void testIdentityIsExactForEveryInterpolation() {
+        BufferedImage source = createPattern();
+        Rectangle bounds = new Rectangle(5, 7, 16, 12);
+
+        for (TransformResampler.Interpolation interpolation : TransformResampler.Interpolation.values()) {
+            BufferedImage result = TransformResampler.resample(source, bounds.getLocation(),
+                    new AffineTransform(), bounds, interpolation);
+            for (int y = 0; y < 12; y++) {
+                for (int x = 0; x < 16; x++) {
+                    assertEquals(interpolation + " at " + x + "," + y, source.getRGB(x, y), result.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTranslationByWholePixels() {
+        BufferedImage source = createPattern();
+
+        BufferedImage result = TransformResampler.resample(source, new Point(0, 0),
+                AffineTransform.getTranslateInstance(3, 2), new Rectangle(3, 2, 16, 12),
+                TransformResampler.Interpolation.BICUBIC);
+
+        assertEquals(source.getRGB(4, 5), result.getRGB(4, 5));
+    }
+
+    @Test
+    public void testScaleUpBilinearBlends() {
+        BufferedImage source = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        source.setRGB(0, 0, 0xFF000000);
+        source.setRGB(1, 0, 0xFFFFFFFF);
+
+        BufferedImage result = TransformResampler.resample(source, new Point(0, 0),
+                AffineTransform.getScaleInstance(4, 1), new Rectangle(0, 0, 8, 1),
+                TransformResampler.Interpolation.BILINEAR);
+
+        int middle = (result.getRGB(4, 0) >> 16) & 0xFF;
+        assertTrue("Middle should be between black and white", middle > 0 && middle < 255);
+        assertEquals("Alpha should stay opaque between opaque pixels", 255, result.getRGB(4, 0) >>> 24);
+    }
+}
@@ -0,0 +1,117 @@
+package com.esgdev.sparkpaint.engine.tools;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StrokeInterpolatorTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testBeginPlacesOneDab() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(3.5, 4.5);
+
+        assertEquals(1, interpolator.getDabCount());
+        assertEquals(3.5, interpolator.getX(0), DELTA);
+        assertEquals(4.5, interpolator.getY(0), DELTA);
+    }
+
+    @Test
+    public void testSpacingStaysEvenAcrossSegments() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+        List<Double> xs = new ArrayList<>();
+
+        interpolator.begin(0, 0);
+        xs.add(interpolator.getX(0));
+        for (double x : new double[]{7, 12, 13, 30}) {
+            int count = interpolator.moveTo(x, 0, 5);
+            for (int i = 0; i < count; i++) {
+                xs.add(interpolator.getX(i));
+                assertEquals(0, interpolator.getY(i), DELTA);
+            }
+        }
+
+        assertEquals(7, xs.size());
+        for (int i = 0; i < xs.size(); i++) {
+            assertEquals(i * 5.0, xs.get(i), DELTA);
+        }
+    }
+
+    @Test
+    public void testSpacingFollowsDiagonalSegments() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(0, 0);
+        int count = interpolator.moveTo(30, 40, 10);
+
+        assertEquals(5, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(6.0 * (i + 1), interpolator.getX(i), DELTA);
+            assertEquals(8.0 * (i + 1), interpolator.getY(i), DELTA);
+        }
+    }
+
+    @Test
+    public void testZeroLengthMovePlacesNoDabAndKeepsTheCarry() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(3, 4);
+        assertEquals(0, interpolator.moveTo(6, 4, 5));
+        assertEquals(0, interpolator.moveTo(6, 4, 5));
+        assertEquals(0, interpolator.getDabCount());
+
+        assertEquals(1, interpolator.moveTo(9, 4, 5));
+        assertEquals(8, interpolator.getX(0), DELTA);
+        assertEquals(4, interpolator.getY(0), DELTA);
+    }
+
+    @Test
+    public void testShortSegmentsAddUpToOneSpacing() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(0, 0);
+        assertEquals(0, interpolator.moveTo(2, 0, 5));
+        assertEquals(0, interpolator.moveTo(4, 0, 5));
+        assertEquals(1, interpolator.moveTo(6, 0, 5));
+
+        assertEquals(5, interpolator.getX(0), DELTA);
+    }
+
+    @Test
+    public void testSpacingBelowOnePixelIsRaisedToOne() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(0, 0);
+
+        assertEquals(4, interpolator.moveTo(4, 0, 0.1));
+    }
+
+    @Test
+    public void testBeginResetsTheCarry() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(0, 0);
+        interpolator.moveTo(4, 0, 5);
+        interpolator.begin(100, 0);
+
+        assertEquals(0, interpolator.moveTo(104, 0, 5));
+        assertEquals(1, interpolator.moveTo(105, 0, 5));
+        assertEquals(105, interpolator.getX(0), DELTA);
+    }
+
+    @Test
+    public void testManyDabsGrowTheBuffer() {
+        StrokeInterpolator interpolator = new StrokeInterpolator();
+
+        interpolator.begin(0, 0);
+        int count = interpolator.moveTo(1000, 0, 1);
+
+        assertEquals(1000, count);
+        assertEquals(1000, interpolator.getX(count - 1), DELTA);
+    }
+}
@@ -0,0 +1,132 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DitherPaletteTest {
+    private static final int SAMPLES = 10000;
+    private static final int PRIMARY = 0x2A6FD3;
+    private static final int SECONDARY = 0xF0C814;
+    private static final float[] STRENGTHS = {0.0f, 0.4f, 1.0f};
+    // The table matches cell centres, at most 4 steps per channel from the color. The entry it
+    // picks can be that much further from the color than the true nearest one, on both sides
+    private static final double TABLE_ERROR = 2 * Math.sqrt(3 * 4 * 4);
+
+    @Test
+    public void testClosestMatchesBruteForceAtCellCentres() {
+        for (float strength : STRENGTHS) {
+            DitherPalette palette = DitherPalette.get(PRIMARY, SECONDARY, strength);
+            int[] entries = bruteForcePalette(PRIMARY, SECONDARY, strength);
+            Random random = new Random(11);
+            for (int i = 0; i < SAMPLES; i++) {
+                int r = random.nextInt(32) * 8 + 4;
+                int g = random.nextInt(32) * 8 + 4;
+                int b = random.nextInt(32) * 8 + 4;
+                int a = random.nextInt(256);
+
+                assertEquals(String.format("strength %s, color %d,%d,%d,%d", strength, r, g, b, a),
+                        bruteForceClosest(entries, r, g, b, a), palette.closest(r, g, b, a));
+            }
+        }
+    }
+
+    @Test
+    public void testClosestIsWithinTheTableErrorOfBruteForce() {
+        for (float strength : STRENGTHS) {
+            DitherPalette palette = DitherPalette.get(PRIMARY, SECONDARY, strength);
+            int[] entries = bruteForcePalette(PRIMARY, SECONDARY, strength);
+            Random random = new Random(12);
+            for (int i = 0; i < SAMPLES; i++) {
+                int r = random.nextInt(256);
+                int g = random.nextInt(256);
+                int b = random.nextInt(256);
+                int a = random.nextInt(256);
+
+                int actual = palette.closest(r, g, b, a);
+                int expected = bruteForceClosest(entries, r, g, b, a);
+                assertTrue(String.format("%08X is not a palette entry", actual), contains(entries, actual));
+                assertTrue(String.format("color %d,%d,%d,%d: %08X instead of %08X", r, g, b, a, actual, expected),
+                        Math.sqrt(distance(actual, r, g, b, a))
+                                <= Math.sqrt(distance(expected, r, g, b, a)) + TABLE_ERROR);
+            }
+        }
+    }
+
+    @Test
+    public void testTransparencyIsChosenLikeTheOldSearch() {
+        DitherPalette palette = DitherPalette.get(PRIMARY, SECONDARY, 1.0f);
+        int[] entries = bruteForcePalette(PRIMARY, SECONDARY, 1.0f);
+
+        // Sweep alpha over palette colors, where the table is exact, so only transparency decides
+        for (int entry = 0; entry < entries.length - 1; entry++) {
+            int r = (entries[entry] >> 16) & 0xFF;
+            int g = (entries[entry] >> 8) & 0xFF;
+            int b = entries[entry] & 0xFF;
+            for (int a = 0; a < 256; a++) {
+                int expected = bruteForceClosest(entries, r, g, b, a);
+                assertEquals("entry " + entry + ", alpha " + a,
+                        expected == 0, palette.closest(r, g, b, a) == 0);
+            }
+        }
+        assertEquals(0, palette.closest(0x2A, 0x6F, 0xD3, 0));
+        assertEquals(0xFF000000 | PRIMARY, palette.closest(0x2A, 0x6F, 0xD3, 255));
+    }
+
+    @Test
+    public void testPalettesAreCachedPerColorsAndLevels() {
+        DitherPalette palette = DitherPalette.get(PRIMARY, SECONDARY, 0.5f);
+
+        assertSame(palette, DitherPalette.get(PRIMARY, SECONDARY, 0.5f));
+        assertNotSame(palette, DitherPalette.get(SECONDARY, PRIMARY, 0.5f));
+        assertNotSame(palette, DitherPalette.get(PRIMARY, SECONDARY, 1.0f));
+    }
+
+    // The gradient followed by the transparent entry, as the filter built it before the table
+    private static int[] bruteForcePalette(int primary, int secondary, float strength) {
+        int levels = 2 + (int) (strength * 6);
+        int[] entries = new int[levels + 1];
+        for (int i = 0; i < levels; i++) {
+            float ratio = (float) i / (levels - 1);
+            int r = (int) (((primary >> 16) & 0xFF) * (1 - ratio) + ((secondary >> 16) & 0xFF) * ratio);
+            int g = (int) (((primary >> 8) & 0xFF) * (1 - ratio) + ((secondary >> 8) & 0xFF) * ratio);
+            int b = (int) ((primary & 0xFF) * (1 - ratio) + (secondary & 0xFF) * ratio);
+            entries[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        entries[levels] = 0;
+        return entries;
+    }
+
+    // The first of the equally near entries wins, so transparency only wins when strictly nearer
+    private static int bruteForceClosest(int[] entries, int r, int g, int b, int a) {
+        int best = entries[0];
+        long bestDistance = distance(best, r, g, b, a);
+        for (int entry : entries) {
+            long distance = distance(entry, r, g, b, a);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    private static long distance(int entry, int r, int g, int b, int a) {
+        int rDiff = ((entry >> 16) & 0xFF) - r;
+        int gDiff = ((entry >> 8) & 0xFF) - g;
+        int bDiff = (entry & 0xFF) - b;
+        int aDiff = (entry >>> 24) - a;
+        return rDiff * rDiff + gDiff * gDiff + bDiff * bDiff + 2L * aDiff * aDiff;
+    }
+
+    private static boolean contains(int[] entries, int color) {
+        for (int entry : entries) {
+            if (entry == color) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
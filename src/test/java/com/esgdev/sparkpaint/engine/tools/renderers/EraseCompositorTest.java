@@ -0,0 +1,140 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class EraseCompositorTest {
+    private static final int SIZE = 40;
+    private static final int COLOR = 0xFF336699;
+    // Integer weights may differ from the float reference by one alpha step
+    private static final int TOLERANCE = 1;
+    // Partial coverage is rounded once into a weight and again when the weight is applied
+    private static final int COVERAGE_TOLERANCE = 2;
+
+    @Test
+    public void testFullCoverageClearsAlpha() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+
+        EraseCompositor.erase(image, new Rectangle(10, 10, 8, 6), null, false, 1.0f);
+
+        for (int y = 10; y < 16; y++) {
+            for (int x = 10; x < 18; x++) {
+                assertEquals("at " + x + "," + y, COLOR & 0x00FFFFFF, image.getRGB(x, y));
+            }
+        }
+        assertEquals(COLOR, image.getRGB(9, 12));
+        assertEquals(COLOR, image.getRGB(18, 12));
+        assertEquals(COLOR, image.getRGB(12, 16));
+    }
+
+    @Test
+    public void testStrengthScalesTheErasedAlpha() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+
+        EraseCompositor.erase(image, new Rectangle(10, 10, 8, 6), null, false, 0.25f);
+
+        assertEquals(255 * 0.75, image.getRGB(12, 12) >>> 24, TOLERANCE);
+        assertEquals(COLOR & 0x00FFFFFF, image.getRGB(12, 12) & 0x00FFFFFF);
+    }
+
+    @Test
+    public void testPartialCoverageErasesProportionally() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+        Shape shape = new Ellipse2D.Double(5.3, 6.7, 24.4, 19.1);
+
+        EraseCompositor.erase(image, shape, null, true, 1.0f);
+
+        int[] coverage = referenceCoverage(shape);
+        int partial = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int value = coverage[y * SIZE + x];
+                if (value > 0 && value < 255) {
+                    partial++;
+                }
+                double expected = 255 * (1 - value / 255.0);
+                assertEquals("at " + x + "," + y, expected, image.getRGB(x, y) >>> 24, COVERAGE_TOLERANCE);
+            }
+        }
+        assertTrue("the edge should be partly covered", partial > 0);
+    }
+
+    @Test
+    public void testClipIsRespected() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+        Rectangle clip = new Rectangle(0, 0, 15, SIZE);
+
+        EraseCompositor.erase(image, new Rectangle(5, 5, 20, 20), clip, true, 1.0f);
+
+        for (int y = 5; y < 25; y++) {
+            for (int x = 5; x < 25; x++) {
+                int expected = x < 15 ? 0 : 0xFF;
+                assertEquals("at " + x + "," + y, expected, image.getRGB(x, y) >>> 24);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundsCrossingTheImageEdge() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+
+        EraseCompositor.erase(image, new Rectangle(-10, SIZE - 5, 20, 20), null, true, 1.0f);
+
+        assertEquals(0, image.getRGB(0, SIZE - 1) >>> 24);
+        assertEquals(0, image.getRGB(9, SIZE - 5) >>> 24);
+        assertEquals(0xFF, image.getRGB(10, SIZE - 1) >>> 24);
+        assertEquals(0xFF, image.getRGB(0, SIZE - 6) >>> 24);
+    }
+
+    @Test
+    public void testBoundsCrossingTheEdgeWithoutDirectRasterAccess() {
+        BufferedImage image = opaque(BufferedImage.TYPE_4BYTE_ABGR);
+
+        EraseCompositor.erase(image, new Rectangle(SIZE - 4, -3, 10, 10), null, false, 1.0f);
+
+        assertEquals(0, image.getRGB(SIZE - 1, 0) >>> 24);
+        assertEquals(0, image.getRGB(SIZE - 4, 6) >>> 24);
+        assertEquals(0xFF, image.getRGB(SIZE - 5, 0) >>> 24);
+        assertEquals(0xFF, image.getRGB(SIZE - 1, 7) >>> 24);
+    }
+
+    @Test
+    public void testShapeOutsideTheImageChangesNothing() {
+        BufferedImage image = opaque(BufferedImage.TYPE_INT_ARGB);
+
+        EraseCompositor.erase(image, new Rectangle(SIZE + 5, -20, 10, 10), null, true, 1.0f);
+        EraseCompositor.erase(image, new Rectangle(5, 5, 10, 10), new Rectangle(-20, -20, 5, 5), true, 1.0f);
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(COLOR, image.getRGB(x, y));
+            }
+        }
+    }
+
+    private static BufferedImage opaque(int type) {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, type);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.setRGB(x, y, COLOR);
+            }
+        }
+        return image;
+    }
+
+    // The coverage Java2D gives each pixel when filling the shape with antialiasing on
+    private static int[] referenceCoverage(Shape shape) {
+        BufferedImage mask = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = mask.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.fill(shape);
+        g2d.dispose();
+        return mask.getRaster().getPixels(0, 0, SIZE, SIZE, (int[]) null);
+    }
+}
@@ -0,0 +1,86 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FalloffMaskTest {
+
+    @Test
+    public void testLinearAtZeroHardnessMatchesTheOldCircularMask() {
+        for (int size = 1; size <= 40; size++) {
+            FalloffMask mask = FalloffMask.get(size, 0f, FalloffMask.Curve.LINEAR);
+
+            assertEquals(size, mask.getSize());
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    assertEquals("size " + size + " at " + x + "," + y,
+                            circularMaskIntensity(size, x, y), mask.intensityAt(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFullHardnessIsSolidInsideTheCircle() {
+        FalloffMask mask = FalloffMask.get(21, 1f, FalloffMask.Curve.GAUSSIAN);
+
+        assertEquals(255, mask.intensityAt(10, 10));
+        assertEquals(255, mask.intensityAt(0, 10));
+        assertEquals(0, mask.intensityAt(0, 0));
+    }
+
+    @Test
+    public void testCurvesFadeFromTheCoreToTheEdge() {
+        for (FalloffMask.Curve curve : FalloffMask.Curve.values()) {
+            FalloffMask mask = FalloffMask.get(41, 0.25f, curve);
+
+            assertEquals(curve.name(), 255, mask.intensityAt(20, 20));
+            assertEquals(curve.name(), 255, mask.intensityAt(25, 20));
+            for (int x = 26; x < 40; x++) {
+                assertTrue(curve.name() + " at " + x, mask.intensityAt(x, 20) <= mask.intensityAt(x - 1, 20));
+            }
+            assertTrue(curve.name(), mask.intensityAt(40, 20) < 16);
+        }
+    }
+
+    @Test
+    public void testMasksAreCachedPerSizeHardnessAndCurve() {
+        FalloffMask mask = FalloffMask.get(24, 0.5f, FalloffMask.Curve.SMOOTH);
+
+        assertSame(mask, FalloffMask.get(24, 0.5f, FalloffMask.Curve.SMOOTH));
+        assertNotSame(mask, FalloffMask.get(25, 0.5f, FalloffMask.Curve.SMOOTH));
+        assertNotSame(mask, FalloffMask.get(24, 0.6f, FalloffMask.Curve.SMOOTH));
+        assertNotSame(mask, FalloffMask.get(24, 0.5f, FalloffMask.Curve.LINEAR));
+        assertNotSame(mask, FalloffMask.get(24, 0.5f, FalloffMask.Curve.GAUSSIAN));
+    }
+
+    @Test
+    public void testCacheKeyRoundsHardnessAndClampsArguments() {
+        // Hardness is kept in whole percent
+        assertSame(FalloffMask.get(24, 0.5f, FalloffMask.Curve.LINEAR),
+                FalloffMask.get(24, 0.502f, FalloffMask.Curve.LINEAR));
+        assertSame(FalloffMask.get(24, 1f, FalloffMask.Curve.LINEAR),
+                FalloffMask.get(24, 3f, FalloffMask.Curve.LINEAR));
+        assertSame(FalloffMask.get(24, 0f, FalloffMask.Curve.LINEAR),
+                FalloffMask.get(24, -1f, FalloffMask.Curve.LINEAR));
+        assertSame(FalloffMask.get(1, 0f, FalloffMask.Curve.LINEAR),
+                FalloffMask.get(0, 0f, FalloffMask.Curve.LINEAR));
+    }
+
+    @Test
+    public void testOutsideTheMaskHasNoIntensity() {
+        FalloffMask mask = FalloffMask.get(10, 1f, FalloffMask.Curve.LINEAR);
+
+        assertEquals(0, mask.intensityAt(-1, 5));
+        assertEquals(0, mask.intensityAt(5, 10));
+    }
+
+    // The formula of the circular mask the filter brush used before falloff masks were cached
+    private static int circularMaskIntensity(int size, int x, int y) {
+        int center = size / 2;
+        double radius = size / 2.0;
+        double distance = Math.sqrt(Math.pow(x - center, 2) + Math.pow(y - center, 2));
+        return distance <= radius ? (int) ((1.0 - distance / radius) * 255) : 0;
+    }
+}
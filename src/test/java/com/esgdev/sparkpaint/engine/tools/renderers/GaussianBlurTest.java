@@ -0,0 +1,72 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GaussianBlurTest {
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 25;
+    private static final int COLOR = 0x80336699;
+
+    @Test
+    public void testConstantImageIsUnchangedByKernel() {
+        for (int radius = 1; radius <= GaussianBlur.BOX_THRESHOLD; radius++) {
+            assertConstantUnchanged(radius);
+        }
+    }
+
+    @Test
+    public void testConstantImageIsUnchangedByBoxes() {
+        assertConstantUnchanged(GaussianBlur.BOX_THRESHOLD + 1);
+        assertConstantUnchanged(20);
+        // Wider than the image, so every window is cut off at the edges
+        assertConstantUnchanged(60);
+    }
+
+    @Test
+    public void testKernelWeightsSumToOne() {
+        for (int radius = 1; radius <= GaussianBlur.BOX_THRESHOLD; radius++) {
+            int[] weights = GaussianBlur.kernel(radius).weights;
+
+            assertEquals(radius * 2 + 1, weights.length);
+            assertEquals("radius " + radius, 1 << GaussianBlur.WEIGHT_BITS, Arrays.stream(weights).sum());
+            for (int i = 0; i < radius; i++) {
+                assertEquals(weights[i], weights[weights.length - 1 - i]);
+                assertTrue(weights[i] <= weights[i + 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeRadiiUseThreeBoxes() {
+        GaussianBlur.Kernel kernel = GaussianBlur.kernel(GaussianBlur.BOX_THRESHOLD + 1);
+
+        assertNull(kernel.weights);
+        assertEquals(3, kernel.boxRadii.length);
+    }
+
+    @Test
+    public void testZeroRadiusLeavesPixelsAlone() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        pixels[WIDTH * 10 + 10] = 0xFFFFFFFF;
+        int[] original = pixels.clone();
+
+        GaussianBlur.blur(pixels, WIDTH, HEIGHT, 0);
+
+        assertArrayEquals(original, pixels);
+    }
+
+    private static void assertConstantUnchanged(int radius) {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        Arrays.fill(pixels, COLOR);
+
+        GaussianBlur.blur(pixels, WIDTH, HEIGHT, radius);
+
+        for (int i = 0; i < pixels.length; i++) {
+            assertEquals("radius " + radius + " at " + i, COLOR, pixels[i]);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RenderUtilsTest {
+    private static final int SAMPLES = 10000;
+    // Integer rounding may differ from the float reference by one step per channel
+    private static final int TOLERANCE = 1;
+
+    @Test
+    public void testLerpMatchesFloatReference() {
+        Random random = new Random(1);
+        for (int i = 0; i < SAMPLES; i++) {
+            int from = random.nextInt();
+            int to = random.nextInt();
+            int weight = random.nextInt(RenderUtils.ONE + 1);
+
+            assertChannelsNear(referenceLerp(from, to, weight), RenderUtils.lerp(from, to, weight));
+        }
+    }
+
+    @Test
+    public void testLerpEndWeightsAreExact() {
+        Random random = new Random(2);
+        for (int i = 0; i < SAMPLES; i++) {
+            int from = random.nextInt();
+            int to = random.nextInt();
+
+            assertEquals(from, RenderUtils.lerp(from, to, 0));
+            assertEquals(to, RenderUtils.lerp(from, to, RenderUtils.ONE));
+        }
+    }
+
+    @Test
+    public void testLerpKeepsTheTopAlphaByte() {
+        assertEquals(0xFF, RenderUtils.lerp(0xFF102030, 0xFFF0E0D0, 128) >>> 24);
+        assertEquals(0xFF, RenderUtils.lerp(0xFFFFFFFF, 0xFFFFFFFF, 77) >>> 24);
+        assertEquals(0x7F, RenderUtils.lerp(0x00000000, 0xFF000000, 128) >>> 24);
+    }
+
+    @Test
+    public void testBlendMatchesFloatReference() {
+        Random random = new Random(3);
+        for (int i = 0; i < SAMPLES; i++) {
+            int dst = random.nextInt() | 0x01000000;
+            int paint = random.nextInt();
+            int weight = random.nextInt(RenderUtils.ONE + 1);
+
+            int expected = referenceLerp(dst, paint | 0xFF000000, weight);
+            assertChannelsNear(expected, RenderUtils.blend(dst, paint, weight));
+        }
+    }
+
+    @Test
+    public void testBlendEndWeights() {
+        assertEquals(0x80123456, RenderUtils.blend(0x80123456, 0x00ABCDEF, 0));
+        assertEquals(0xFFABCDEF, RenderUtils.blend(0x80123456, 0x00ABCDEF, RenderUtils.ONE));
+        assertEquals(0xFFABCDEF, RenderUtils.blend(0x80123456, 0xFFABCDEF, RenderUtils.ONE));
+    }
+
+    @Test
+    public void testBlendIntoTransparentPixelTakesThePaintColor() {
+        assertEquals(0x00123456, RenderUtils.blend(0x00123456, 0x00ABCDEF, 0));
+        assertEquals(0x7FABCDEF, RenderUtils.blend(0x00123456, 0x00ABCDEF, 128));
+        assertEquals(0xFFABCDEF, RenderUtils.blend(0x00000000, 0x00ABCDEF, RenderUtils.ONE));
+    }
+
+    @Test
+    public void testSrcOverMatchesFloatReference() {
+        Random random = new Random(4);
+        for (int i = 0; i < SAMPLES; i++) {
+            int dst = random.nextInt();
+            int src = random.nextInt();
+
+            assertChannelsNear(referenceSrcOver(dst, src), RenderUtils.srcOver(dst, src));
+        }
+    }
+
+    @Test
+    public void testSrcOverOpaqueAndTransparentSources() {
+        assertEquals(0xFF123456, RenderUtils.srcOver(0x80ABCDEF, 0xFF123456));
+        assertEquals(0x80ABCDEF, RenderUtils.srcOver(0x80ABCDEF, 0x00123456));
+    }
+
+    @Test
+    public void testSrcOverTransparentDestinationTakesTheSource() {
+        assertEquals(0x80123456, RenderUtils.srcOver(0x00ABCDEF, 0x80123456));
+        assertEquals(0x01123456, RenderUtils.srcOver(0x00000000, 0x01123456));
+    }
+
+    @Test
+    public void testSrcOverOverOpaqueStaysOpaque() {
+        assertEquals(0xFF, RenderUtils.srcOver(0xFF000000, 0x80FFFFFF) >>> 24);
+        assertEquals(0xFF, RenderUtils.srcOver(0xFFFFFFFF, 0x01000000) >>> 24);
+    }
+
+    @Test
+    public void testEraseAlphaMatchesFloatReference() {
+        Random random = new Random(5);
+        for (int i = 0; i < SAMPLES; i++) {
+            int dst = random.nextInt();
+            int weight = random.nextInt(RenderUtils.ONE + 1);
+
+            int result = RenderUtils.eraseAlpha(dst, weight);
+            assertEquals(dst & 0x00FFFFFF, result & 0x00FFFFFF);
+            double expectedAlpha = (dst >>> 24) * (1 - weight / (double) RenderUtils.ONE);
+            assertEquals(expectedAlpha, result >>> 24, TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testEraseAlphaEndWeights() {
+        assertEquals(0xFF123456, RenderUtils.eraseAlpha(0xFF123456, 0));
+        assertEquals(0x00123456, RenderUtils.eraseAlpha(0xFF123456, RenderUtils.ONE));
+        assertEquals(0x7F123456, RenderUtils.eraseAlpha(0xFF123456, 128));
+    }
+
+    private static int referenceLerp(int from, int to, int weight) {
+        double t = weight / (double) RenderUtils.ONE;
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            double value = ((from >>> shift) & 0xFF) * (1 - t) + ((to >>> shift) & 0xFF) * t;
+            result |= (int) Math.round(value) << shift;
+        }
+        return result;
+    }
+
+    private static int referenceSrcOver(int dst, int src) {
+        double srcAlpha = (src >>> 24) / 255.0;
+        double dstAlpha = (dst >>> 24) / 255.0 * (1 - srcAlpha);
+        double outAlpha = srcAlpha + dstAlpha;
+        if (outAlpha == 0) {
+            return dst;
+        }
+        int result = (int) Math.round(outAlpha * 255) << 24;
+        for (int shift = 0; shift < 24; shift += 8) {
+            double value = (((src >>> shift) & 0xFF) * srcAlpha + ((dst >>> shift) & 0xFF) * dstAlpha) / outAlpha;
+            result |= (int) Math.round(value) << shift;
+        }
+        return result;
+    }
+
+    private static void assertChannelsNear(int expected, int actual) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            int expectedChannel = (expected >>> shift) & 0xFF;
+            int actualChannel = (actual >>> shift) & 0xFF;
+            assertTrue(String.format("expected %08X but was %08X", expected, actual),
+                    Math.abs(expectedChannel - actualChannel) <= TOLERANCE);
+        }
+    }
+}
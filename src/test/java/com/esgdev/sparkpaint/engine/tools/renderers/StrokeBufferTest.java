@@ -0,0 +1,79 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class StrokeBufferTest {
+    private static final int BACKGROUND = 0xFF0000FF;
+
+    @Test
+    public void testStampAcrossTilesBlendsEveryPixel() {
+        BufferedImage image = background(200, 150);
+        StrokeBuffer buffer = new StrokeBuffer();
+        buffer.begin(image, Color.RED, 1.0f);
+
+        // Straddles the corner where four tiles meet
+        addSquare(buffer, image, 54, 54, 20);
+        buffer.end();
+
+        for (int y = 54; y < 74; y++) {
+            for (int x = 54; x < 74; x++) {
+                assertEquals("at " + x + "," + y, 0xFFFF0000, image.getRGB(x, y));
+            }
+        }
+        assertEquals(BACKGROUND, image.getRGB(53, 60));
+        assertEquals(BACKGROUND, image.getRGB(74, 60));
+    }
+
+    @Test
+    public void testCrossingStrokeBlendsFromTheOriginalPixels() {
+        BufferedImage image = background(300, 300);
+        StrokeBuffer buffer = new StrokeBuffer();
+        buffer.begin(image, Color.RED, 0.5f);
+
+        addSquare(buffer, image, 10, 10, 16);
+        buffer.composite();
+        int once = image.getRGB(15, 15);
+
+        // Wander far away, then come back over the painted area
+        for (int i = 0; i < 250; i += 8) {
+            addSquare(buffer, image, i, i, 16);
+            buffer.composite();
+        }
+        addSquare(buffer, image, 10, 10, 16);
+        buffer.end();
+
+        assertEquals(once, image.getRGB(15, 15));
+        assertEquals(once, image.getRGB(250, 250));
+    }
+
+    @Test
+    public void testStampAtTheImageEdge() {
+        BufferedImage image = background(70, 70);
+        StrokeBuffer buffer = new StrokeBuffer();
+        buffer.begin(image, Color.RED, 1.0f);
+
+        addSquare(buffer, image, 60, 60, 20);
+        buffer.end();
+
+        assertEquals(0xFFFF0000, image.getRGB(69, 69));
+        assertEquals(BACKGROUND, image.getRGB(59, 69));
+    }
+
+    private static void addSquare(StrokeBuffer buffer, BufferedImage image, int x, int y, int size) {
+        BrushStamp stamp = BrushStamp.get(true, size, false);
+        Rectangle dab = new Rectangle(x, y, size, size)
+                .intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        buffer.addStamp(stamp, x, y, dab, null);
+    }
+
+    private static BufferedImage background(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        BulkFill.fill(image, BACKGROUND);
+        return image;
+    }
+}
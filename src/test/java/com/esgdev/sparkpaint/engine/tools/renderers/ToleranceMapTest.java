@@ -0,0 +1,113 @@
+package com.esgdev.sparkpaint.engine.tools.renderers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ToleranceMapTest {
+    private static final int WIDTH = 48;
+    private static final int HEIGHT = 32;
+    private static final int MAX_TOLERANCE = 255;
+    private static final int[] LEVELS = {0, 3, 10, 25, 60, 120, 200, MAX_TOLERANCE};
+
+    private BufferedImage image;
+
+    @Before
+    public void setUp() {
+        // A noisy diagonal gradient with a few transparent holes, so the region grows in steps
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(7);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int gray = Math.min(255, x * 3 + y * 2 + random.nextInt(20));
+                int alpha = random.nextInt(30) == 0 ? 0 : 255;
+                image.setRGB(x, y, alpha << 24 | gray << 16 | gray << 8 | gray);
+            }
+        }
+    }
+
+    @Test
+    public void testRegionMatchesFloodAtEachLevel() {
+        assertMatchesFlood(5, 5, null);
+        assertMatchesFlood(30, 20, null);
+    }
+
+    @Test
+    public void testRegionMatchesFloodWithClip() {
+        Shape clip = new Ellipse2D.Double(4, 2, 36, 26);
+
+        assertMatchesFlood(20, 15, clip);
+    }
+
+    @Test
+    public void testBoundsAccumulateWithTheLevel() {
+        ToleranceMap map = ToleranceMap.compute(image, 5, 5, MAX_TOLERANCE, null);
+
+        Rectangle previous = null;
+        for (int level = 0; level <= MAX_TOLERANCE; level++) {
+            Rectangle bounds = map.getBounds(level);
+            assertNotNull(bounds);
+            assertEquals(map.regionAt(level).getBounds(), bounds);
+            if (previous != null) {
+                assertTrue("bounds shrank at level " + level, bounds.contains(previous));
+            }
+            previous = bounds;
+        }
+    }
+
+    @Test
+    public void testLevelsAboveTheMaximumAreClamped() {
+        ToleranceMap map = ToleranceMap.compute(image, 5, 5, 20, null);
+
+        assertEquals(map.getBounds(20), map.getBounds(100));
+        assertEquals(map.getBounds(0), map.getBounds(-5));
+    }
+
+    @Test
+    public void testSeedOutsideTheImageGivesAnEmptyRegion() {
+        ToleranceMap map = ToleranceMap.compute(image, -1, 5, MAX_TOLERANCE, null);
+
+        assertNull(map.getBounds(MAX_TOLERANCE));
+        assertTrue(map.regionAt(MAX_TOLERANCE).isEmpty());
+        assertEquals(-1, map.levelAt(5, 5));
+    }
+
+    @Test
+    public void testSeedOutsideTheClipGivesAnEmptyRegion() {
+        ToleranceMap map = ToleranceMap.compute(image, 0, 0, MAX_TOLERANCE, new Rectangle(10, 10, 5, 5));
+
+        assertNull(map.getBounds(MAX_TOLERANCE));
+        assertTrue(map.regionAt(MAX_TOLERANCE).isEmpty());
+    }
+
+    private void assertMatchesFlood(int x, int y, Shape clip) {
+        ToleranceMap map = ToleranceMap.compute(image, x, y, MAX_TOLERANCE, clip);
+        int target = image.getRGB(x, y);
+
+        for (int level : LEVELS) {
+            FloodSpans expected = FloodSpans.flood(image, x, y, target, level, clip);
+            FloodSpans actual = map.regionAt(level);
+
+            assertArrayEquals("region at level " + level, mask(expected), mask(actual));
+            assertEquals("bounds at level " + level, expected.getBounds(), actual.getBounds());
+            assertEquals("cumulative bounds at level " + level, expected.getBounds(), map.getBounds(level));
+        }
+    }
+
+    private static boolean[] mask(FloodSpans spans) {
+        boolean[] mask = new boolean[WIDTH * HEIGHT];
+        spans.forEachSpan((y, x0, x1) -> {
+            for (int x = x0; x < x1; x++) {
+                assertFalse("pixel covered twice", mask[y * WIDTH + x]);
+                mask[y * WIDTH + x] = true;
+            }
+        });
+        return mask;
+    }
+}